@@ -0,0 +1,102 @@
+/*-
+ * ========================LICENSE_START=================================
+ * mrsim2d-benchmark
+ * %%
+ * Copyright (C) 2020 - 2024 Eric Medvet
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package io.github.ericmedvet.mrsim2d.benchmark;
+
+import io.github.ericmedvet.jnb.datastructure.DoubleRange;
+import io.github.ericmedvet.mrsim2d.core.geometry.Point;
+import io.github.ericmedvet.mrsim2d.core.geometry.Poly;
+import io.github.ericmedvet.mrsim2d.core.tasks.AgentsObservation;
+import io.github.ericmedvet.mrsim2d.core.tasks.AgentsOutcome;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AgentsOutcomeBenchmark {
+
+  private static final double DT = 1d / 60d;
+  private static final int N_OF_POLIES = 20;
+
+  @Param({"600", "6000"})
+  public int nOfObservations;
+
+  @Param({"1", "10"})
+  public int nOfAgents;
+
+  private List<List<AgentsObservation.Agent>> agents;
+  private AgentsOutcome.Recorder<AgentsObservation> recorder;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    agents = new ArrayList<>(nOfObservations);
+    for (int i = 0; i < nOfObservations; i = i + 1) {
+      List<AgentsObservation.Agent> observationAgents = new ArrayList<>(nOfAgents);
+      for (int j = 0; j < nOfAgents; j = j + 1) {
+        List<Poly> polies = new ArrayList<>(N_OF_POLIES);
+        for (int k = 0; k < N_OF_POLIES; k = k + 1) {
+          double x = i * DT + j * 10 + k % 5;
+          double y = Math.sin(i * DT) + (double) k / 5;
+          polies.add(new Poly(
+              new Point(x, y), new Point(x + 1, y), new Point(x + 1, y + 1), new Point(x, y + 1)));
+        }
+        observationAgents.add(new AgentsObservation.Agent(polies, 0));
+      }
+      agents.add(observationAgents);
+    }
+    recorder = record();
+  }
+
+  @Benchmark
+  public double metrics() {
+    AgentsOutcome<AgentsObservation> outcome = new AgentsOutcome<>(recorder);
+    return outcome.firstAgentXVelocity()
+        + outcome.allAgentsAverageHeight()
+        + outcome.firstAgentMaxRelativeJumpHeight()
+        + outcome.subOutcome(new DoubleRange(outcome.duration() / 2d, outcome.duration()))
+            .firstAgentAverageY();
+  }
+
+  @Benchmark
+  public AgentsOutcome.Recorder<AgentsObservation> record() {
+    AgentsOutcome.Recorder<AgentsObservation> localRecorder = new AgentsOutcome.Recorder<>(false);
+    for (int i = 0; i < agents.size(); i = i + 1) {
+      // new observations, as they lazily cache their bounding boxes and centers
+      localRecorder.add(i * DT, new AgentsObservation(agents.get(i)));
+    }
+    return localRecorder;
+  }
+}
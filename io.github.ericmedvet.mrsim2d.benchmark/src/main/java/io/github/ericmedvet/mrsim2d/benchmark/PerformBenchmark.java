@@ -0,0 +1,119 @@
+/*-
+ * ========================LICENSE_START=================================
+ * mrsim2d-benchmark
+ * %%
+ * Copyright (C) 2020 - 2024 Eric Medvet
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package io.github.ericmedvet.mrsim2d.benchmark;
+
+import io.github.ericmedvet.mrsim2d.core.Action;
+import io.github.ericmedvet.mrsim2d.core.ActionOutcome;
+import io.github.ericmedvet.mrsim2d.core.actions.ActuateVoxel;
+import io.github.ericmedvet.mrsim2d.core.actions.AddAgent;
+import io.github.ericmedvet.mrsim2d.core.actions.CreateUnmovableBody;
+import io.github.ericmedvet.mrsim2d.core.actions.CreateVoxel;
+import io.github.ericmedvet.mrsim2d.core.actions.EmitNFCMessage;
+import io.github.ericmedvet.mrsim2d.core.actions.FindInContactBodies;
+import io.github.ericmedvet.mrsim2d.core.actions.SenseAngle;
+import io.github.ericmedvet.mrsim2d.core.actions.SenseAreaRatio;
+import io.github.ericmedvet.mrsim2d.core.actions.SenseContact;
+import io.github.ericmedvet.mrsim2d.core.actions.SenseDistanceToBody;
+import io.github.ericmedvet.mrsim2d.core.actions.SenseNFC;
+import io.github.ericmedvet.mrsim2d.core.actions.SenseRotatedVelocity;
+import io.github.ericmedvet.mrsim2d.core.actions.SenseSideCompression;
+import io.github.ericmedvet.mrsim2d.core.actions.TranslateBody;
+import io.github.ericmedvet.mrsim2d.core.bodies.Voxel;
+import io.github.ericmedvet.mrsim2d.core.engine.Engine;
+import io.github.ericmedvet.mrsim2d.core.geometry.Point;
+import io.github.ericmedvet.mrsim2d.core.geometry.Poly;
+import io.github.ericmedvet.mrsim2d.engine.dyn4j.Dyn4JEngine;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PerformBenchmark {
+
+  private static final int N_OF_SETTLING_TICKS = 60;
+
+  // emitting NFC messages is not included: messages accumulate until the next tick
+  public enum ActionType {
+    ACTUATE_VOXEL,
+    FIND_IN_CONTACT_BODIES,
+    SENSE_ANGLE,
+    SENSE_AREA_RATIO,
+    SENSE_CONTACT,
+    SENSE_DISTANCE_TO_BODY,
+    SENSE_NFC,
+    SENSE_ROTATED_VELOCITY,
+    SENSE_SIDE_COMPRESSION
+  }
+
+  @Param
+  public ActionType actionType;
+
+  private Engine engine;
+  private Action<?> action;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    engine = new Dyn4JEngine();
+    engine.setSnapshotPolicy(Engine.SnapshotPolicy.NONE);
+    engine.setProfilingLevel(Engine.ProfilingLevel.OFF);
+    engine.perform(new CreateUnmovableBody(Poly.rectangle(100, 1)));
+    Voxel voxel = engine.perform(new CreateVoxel(1, 1, Voxel.DEFAULT_MATERIAL))
+        .outcome()
+        .orElseThrow();
+    engine.perform(new TranslateBody(voxel, new Point(50, 1.1)));
+    // add an agent emitting nfc messages at each tick, for sensing them
+    engine.perform(new AddAgent(
+        (t, previousActionOutcomes) -> List.of(new EmitNFCMessage(voxel, new Point(0, 0), 0, (short) 0, 1))));
+    for (int i = 0; i < N_OF_SETTLING_TICKS; i = i + 1) {
+      engine.tick();
+    }
+    action = switch (actionType) {
+      case ACTUATE_VOXEL -> new ActuateVoxel(voxel, 0.5);
+      case FIND_IN_CONTACT_BODIES -> new FindInContactBodies(voxel);
+      case SENSE_ANGLE -> new SenseAngle(voxel);
+      case SENSE_AREA_RATIO -> new SenseAreaRatio(voxel);
+      case SENSE_CONTACT -> new SenseContact(voxel);
+      case SENSE_DISTANCE_TO_BODY -> new SenseDistanceToBody(-Math.PI / 2d, 5, voxel);
+      case SENSE_NFC -> new SenseNFC(voxel, new Point(0, 0), 0, (short) 0);
+      case SENSE_ROTATED_VELOCITY -> new SenseRotatedVelocity(0, voxel);
+      case SENSE_SIDE_COMPRESSION -> new SenseSideCompression(Voxel.Side.N, voxel);};
+  }
+
+  @Benchmark
+  public ActionOutcome<?, ?> perform() {
+    return engine.perform(action);
+  }
+}
@@ -0,0 +1,95 @@
+/*-
+ * ========================LICENSE_START=================================
+ * mrsim2d-benchmark
+ * %%
+ * Copyright (C) 2020 - 2024 Eric Medvet
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package io.github.ericmedvet.mrsim2d.benchmark;
+
+import io.github.ericmedvet.jnb.core.NamedBuilder;
+import io.github.ericmedvet.mrsim2d.core.EmbodiedAgent;
+import io.github.ericmedvet.mrsim2d.core.engine.Engine;
+import io.github.ericmedvet.mrsim2d.core.geometry.Terrain;
+import io.github.ericmedvet.mrsim2d.core.tasks.locomotion.Locomotion;
+import io.github.ericmedvet.mrsim2d.engine.dyn4j.Dyn4JEngine;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+public class SolverQualityBenchmark {
+
+  private static final double DURATION = 10;
+
+  @Param({"biped-vsr-centralized-mlp.txt", "worm-vsr-reactive.txt", "legged-mlp.txt"})
+  public String agent;
+
+  @Param
+  public Dyn4JEngine.SolverQuality solverQuality;
+
+  private Supplier<EmbodiedAgent> agentSupplier;
+  private Locomotion locomotion;
+  private double accurateXVelocity;
+
+  @State(Scope.Thread)
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  public static class Fidelity {
+    // the fidelity is measured as the difference of the x-velocity w.r.t. the one obtained with the accurate solver
+    public double xVelocityDifference;
+  }
+
+  @Setup(Level.Trial)
+  public void setup() {
+    NamedBuilder<Object> nb = NamedBuilder.fromDiscovery();
+    agentSupplier = Utils.agentSupplier(agent, nb, 1);
+    locomotion = new Locomotion(DURATION, (Terrain) nb.build("sim.terrain.flat()"));
+    accurateXVelocity = xVelocity(Dyn4JEngine.SolverQuality.ACCURATE);
+  }
+
+  private double xVelocity(Dyn4JEngine.SolverQuality solverQuality) {
+    Engine engine = Dyn4JEngine.factory(
+            Double.POSITIVE_INFINITY, solverQuality, Dyn4JEngine.VoxelGridAssembly.WELDED)
+        .get();
+    engine.setSnapshotPolicy(Engine.SnapshotPolicy.NONE);
+    engine.setProfilingLevel(Engine.ProfilingLevel.OFF);
+    return locomotion.run(agentSupplier, engine).firstAgentXVelocity();
+  }
+
+  @Benchmark
+  public double locomotion(Fidelity fidelity) {
+    // the simulated duration is fixed, hence the time per run reflects the simulation speed, regardless of the step
+    double xVelocity = xVelocity(solverQuality);
+    fidelity.xVelocityDifference = Math.abs(xVelocity - accurateXVelocity);
+    return xVelocity;
+  }
+}
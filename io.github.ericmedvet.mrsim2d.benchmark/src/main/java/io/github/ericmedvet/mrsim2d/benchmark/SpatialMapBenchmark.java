@@ -0,0 +1,101 @@
+/*-
+ * ========================LICENSE_START=================================
+ * mrsim2d-benchmark
+ * %%
+ * Copyright (C) 2020 - 2024 Eric Medvet
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package io.github.ericmedvet.mrsim2d.benchmark;
+
+import io.github.ericmedvet.mrsim2d.core.geometry.Point;
+import io.github.ericmedvet.mrsim2d.core.util.GridSpatialMap;
+import io.github.ericmedvet.mrsim2d.core.util.HashSpatialMap;
+import io.github.ericmedvet.mrsim2d.core.util.SpatialMap;
+import java.util.Collection;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.random.RandomGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SpatialMapBenchmark {
+
+  // as the engine default nfc distance range, used both as cell size and query range
+  private static final double RANGE = 0.5;
+  // as the engine default number of nfc channels
+  private static final int N_OF_CHANNELS = 8;
+
+  public enum Implementation {
+    HASH,
+    GRID
+  }
+
+  @Param({"HASH", "GRID"})
+  public Implementation implementation;
+
+  @Param({"100", "1000", "10000"})
+  public int nOfItems;
+
+  @Param({"10", "100"})
+  public double worldSize;
+
+  private Point[] points;
+  private SpatialMap<Integer> map;
+  private int queryIndex;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    RandomGenerator rg = new Random(1);
+    points = new Point[nOfItems];
+    for (int i = 0; i < nOfItems; i = i + 1) {
+      points[i] = new Point(rg.nextDouble() * worldSize, rg.nextDouble() * worldSize);
+    }
+    map = switch (implementation) {
+      case HASH -> new HashSpatialMap<>(RANGE);
+      case GRID -> new GridSpatialMap<>(RANGE, N_OF_CHANNELS, i -> i % N_OF_CHANNELS);};
+    fill();
+  }
+
+  @Benchmark
+  public SpatialMap<Integer> fill() {
+    map.clear();
+    for (int i = 0; i < points.length; i = i + 1) {
+      map.add(points[i], i);
+    }
+    return map;
+  }
+
+  @Benchmark
+  public Collection<Integer> get() {
+    queryIndex = (queryIndex + 1) % points.length;
+    return map.get(points[queryIndex], RANGE);
+  }
+}
@@ -0,0 +1,97 @@
+/*-
+ * ========================LICENSE_START=================================
+ * mrsim2d-benchmark
+ * %%
+ * Copyright (C) 2020 - 2024 Eric Medvet
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package io.github.ericmedvet.mrsim2d.benchmark;
+
+import io.github.ericmedvet.jnb.core.NamedBuilder;
+import io.github.ericmedvet.jnb.datastructure.DoubleRange;
+import io.github.ericmedvet.jnb.datastructure.NumericalParametrized;
+import io.github.ericmedvet.jsdynsym.core.composed.Composed;
+import io.github.ericmedvet.mrsim2d.core.EmbodiedAgent;
+import io.github.ericmedvet.mrsim2d.core.NumMultiBrained;
+import io.github.ericmedvet.mrsim2d.core.actions.AddAgent;
+import io.github.ericmedvet.mrsim2d.core.actions.CreateUnmovableBody;
+import io.github.ericmedvet.mrsim2d.core.actions.TranslateAgent;
+import io.github.ericmedvet.mrsim2d.core.engine.Engine;
+import io.github.ericmedvet.mrsim2d.core.geometry.BoundingBox;
+import io.github.ericmedvet.mrsim2d.core.geometry.Point;
+import io.github.ericmedvet.mrsim2d.core.geometry.Terrain;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.util.Random;
+import java.util.function.Supplier;
+import java.util.random.RandomGenerator;
+import java.util.stream.Collectors;
+
+class Utils {
+
+  private static final double INITIAL_X_GAP = 1;
+  private static final double INITIAL_Y_GAP = 0.1;
+
+  private Utils() {}
+
+  static Supplier<EmbodiedAgent> agentSupplier(String agentResourceName, NamedBuilder<Object> nb, long seed) {
+    InputStream inputStream = Utils.class.getResourceAsStream("/agents/%s".formatted(agentResourceName));
+    if (inputStream == null) {
+      throw new IllegalArgumentException("Cannot find agent description %s".formatted(agentResourceName));
+    }
+    String agentDescription;
+    try (BufferedReader br = new BufferedReader(new InputStreamReader(inputStream))) {
+      agentDescription = br.lines().collect(Collectors.joining());
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return () -> {
+      EmbodiedAgent agent = (EmbodiedAgent) nb.build(agentDescription);
+      // set brains parameters to fixed random values
+      if (agent instanceof NumMultiBrained numMultiBrained) {
+        RandomGenerator rg = new Random(seed);
+        numMultiBrained.brains().stream()
+            .map(b -> Composed.shallowest(b, NumericalParametrized.class))
+            .forEach(o -> o.ifPresent(np -> np.randomize(rg, DoubleRange.SYMMETRIC_UNIT)));
+      }
+      return agent;
+    };
+  }
+
+  static EmbodiedAgent placeOnTerrain(Engine engine, Terrain terrain, EmbodiedAgent agent) {
+    engine.perform(new CreateUnmovableBody(terrain.poly()));
+    engine.perform(new AddAgent(agent));
+    BoundingBox agentBB = agent.boundingBox();
+    engine.perform(new TranslateAgent(
+        agent,
+        new Point(
+            terrain.withinBordersXRange().min()
+                + INITIAL_X_GAP
+                - agentBB.min().x(),
+            0)));
+    agentBB = agent.boundingBox();
+    engine.perform(new TranslateAgent(
+        agent,
+        new Point(
+            0,
+            terrain.maxHeightAt(agentBB.xRange())
+                + INITIAL_Y_GAP
+                - agentBB.min().y())));
+    return agent;
+  }
+}
@@ -0,0 +1,109 @@
+/*-
+ * ========================LICENSE_START=================================
+ * mrsim2d-benchmark
+ * %%
+ * Copyright (C) 2020 - 2024 Eric Medvet
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package io.github.ericmedvet.mrsim2d.benchmark;
+
+import io.github.ericmedvet.jnb.core.NamedBuilder;
+import io.github.ericmedvet.mrsim2d.core.EmbodiedAgent;
+import io.github.ericmedvet.mrsim2d.core.Snapshot;
+import io.github.ericmedvet.mrsim2d.core.engine.Engine;
+import io.github.ericmedvet.mrsim2d.core.geometry.Terrain;
+import io.github.ericmedvet.mrsim2d.core.tasks.locomotion.Locomotion;
+import io.github.ericmedvet.mrsim2d.engine.dyn4j.Dyn4JEngine;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class VoxelGridAssemblyBenchmark {
+
+  private static final double DURATION = 10;
+
+  @Param({"biped-vsr-centralized-mlp.txt", "worm-vsr-reactive.txt", "tripod-vsr-distributed-mlp.txt"})
+  public String agent;
+
+  @Param
+  public Dyn4JEngine.VoxelGridAssembly voxelGridAssembly;
+
+  private Supplier<EmbodiedAgent> agentSupplier;
+  private Terrain terrain;
+  private Engine engine;
+  private double xVelocityDifference;
+
+  @State(Scope.Thread)
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  public static class Fidelity {
+    // the fidelity is measured as the difference of the x-velocity w.r.t. the one obtained with welded voxels
+    public double xVelocityDifference;
+  }
+
+  @Setup(Level.Trial)
+  public void setupTrial() {
+    NamedBuilder<Object> nb = NamedBuilder.fromDiscovery();
+    agentSupplier = Utils.agentSupplier(agent, nb, 1);
+    terrain = (Terrain) nb.build("sim.terrain.flat()");
+    engine = engine(voxelGridAssembly);
+    Locomotion locomotion = new Locomotion(DURATION, terrain);
+    double xVelocity =
+        locomotion.run(agentSupplier, engine(voxelGridAssembly)).firstAgentXVelocity();
+    double weldedXVelocity = locomotion
+        .run(agentSupplier, engine(Dyn4JEngine.VoxelGridAssembly.WELDED))
+        .firstAgentXVelocity();
+    xVelocityDifference = Math.abs(xVelocity - weldedXVelocity);
+  }
+
+  @Setup(Level.Iteration)
+  public void setupIteration() {
+    // start each iteration from the same initial world
+    engine.reset();
+    Utils.placeOnTerrain(engine, terrain, agentSupplier.get());
+  }
+
+  private static Engine engine(Dyn4JEngine.VoxelGridAssembly voxelGridAssembly) {
+    Engine engine = Dyn4JEngine.factory(
+            Double.POSITIVE_INFINITY, Dyn4JEngine.SolverQuality.ACCURATE, voxelGridAssembly)
+        .get();
+    engine.setSnapshotPolicy(Engine.SnapshotPolicy.NONE);
+    engine.setProfilingLevel(Engine.ProfilingLevel.OFF);
+    return engine;
+  }
+
+  @Benchmark
+  public Snapshot tick(Fidelity fidelity) {
+    fidelity.xVelocityDifference = xVelocityDifference;
+    return engine.tick();
+  }
+}
@@ -0,0 +1,132 @@
+/*-
+ * ========================LICENSE_START=================================
+ * mrsim2d-buildable
+ * %%
+ * Copyright (C) 2020 - 2024 Eric Medvet
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package io.github.ericmedvet.mrsim2d.buildable;
+
+import io.github.ericmedvet.mrsim2d.core.engine.Engine;
+import io.github.ericmedvet.mrsim2d.core.engine.EngineFactory;
+import io.github.ericmedvet.mrsim2d.core.tasks.AgentsObservation;
+import io.github.ericmedvet.mrsim2d.core.tasks.AgentsOutcome;
+import io.github.ericmedvet.mrsim2d.core.tasks.Task;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.logging.Logger;
+
+public class BatchTaskRunner<A, S extends AgentsObservation, O extends AgentsOutcome<S>> {
+
+  private static final Logger L = Logger.getLogger(BatchTaskRunner.class.getName());
+
+  private final Task<A, S, O> task;
+  private final Supplier<Engine> engineSupplier;
+  private final PoolType poolType;
+  private final int nOfThreads;
+
+  public BatchTaskRunner(Task<A, S, O> task, Supplier<Engine> engineSupplier, PoolType poolType, int nOfThreads) {
+    if (nOfThreads < 1) {
+      throw new IllegalArgumentException("Invalid number of threads: %d".formatted(nOfThreads));
+    }
+    this.task = task;
+    this.engineSupplier = engineSupplier;
+    this.poolType = poolType;
+    this.nOfThreads = nOfThreads;
+  }
+
+  public BatchTaskRunner(Task<A, S, O> task, PoolType poolType, int nOfThreads) {
+    this(task, EngineFactory.service(), poolType, nOfThreads);
+  }
+
+  public BatchTaskRunner(Task<A, S, O> task) {
+    this(task, PoolType.PLATFORM, Runtime.getRuntime().availableProcessors());
+  }
+
+  public enum PoolType {
+    PLATFORM,
+    VIRTUAL,
+    FORK_JOIN
+  }
+
+  public record Outcomes<O>(List<O> outcomes, long nOfTicks, double elapsedSeconds) {
+    public double simulationsPerSecond() {
+      return outcomes.size() / elapsedSeconds;
+    }
+
+    public double ticksPerSecond() {
+      return nOfTicks / elapsedSeconds;
+    }
+  }
+
+  private ExecutorService executorService() {
+    return switch (poolType) {
+      case PLATFORM -> Executors.newFixedThreadPool(nOfThreads);
+      case VIRTUAL -> Executors.newVirtualThreadPerTaskExecutor();
+      case FORK_JOIN -> new ForkJoinPool(nOfThreads);
+    };
+  }
+
+  public Outcomes<O> run(List<? extends A> as) {
+    LongAdder nOfTicks = new LongAdder();
+    // engines are borrowed from a pool and given back, after the simulation, regardless of the thread running it
+    Queue<Engine> engines = new ConcurrentLinkedQueue<>();
+    long startingNanoTime = System.nanoTime();
+    List<O> outcomes = new ArrayList<>(as.size());
+    try (ExecutorService executorService = executorService()) {
+      List<Future<O>> futures = new ArrayList<>(as.size());
+      for (A a : as) {
+        futures.add(executorService.submit(() -> {
+          Engine engine = engines.poll();
+          if (engine == null) {
+            engine = engineSupplier.get();
+            engine.setSnapshotPolicy(Engine.SnapshotPolicy.NONE);
+            engine.setProfilingLevel(Engine.ProfilingLevel.OFF);
+          } else {
+            engine.reset();
+          }
+          try {
+            return task.run(a, engine, snapshot -> nOfTicks.increment());
+          } finally {
+            engines.add(engine);
+          }
+        }));
+      }
+      for (Future<O> future : futures) {
+        outcomes.add(future.get());
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException(e);
+    } catch (ExecutionException e) {
+      throw new RuntimeException(e.getCause());
+    }
+    Outcomes<O> batchOutcomes =
+        new Outcomes<>(outcomes, nOfTicks.sum(), (System.nanoTime() - startingNanoTime) / 1000000000d);
+    L.fine(String.format(
+        "%d simulations done with %s pool: %.1f simulations/s, %.0f ticks/s",
+        outcomes.size(), poolType, batchOutcomes.simulationsPerSecond(), batchOutcomes.ticksPerSecond()));
+    return batchOutcomes;
+  }
+}
@@ -47,12 +47,14 @@ public class Agents {
   @SuppressWarnings("unused")
   public static CentralizedNumGridVSR centralizedNumGridVSR(
       @Param("body") GridBody body,
-      @Param("function") NumericalDynamicalSystems.Builder<?, ?> numericalDynamicalSystemBuilder) {
+      @Param("function") NumericalDynamicalSystems.Builder<?, ?> numericalDynamicalSystemBuilder,
+      @Param(value = "sensorBank") boolean useSensorBank) {
     return new CentralizedNumGridVSR(
         body,
         numericalDynamicalSystemBuilder.apply(
             MultivariateRealFunction.varNames("x", CentralizedNumGridVSR.nOfInputs(body)),
-            MultivariateRealFunction.varNames("y", CentralizedNumGridVSR.nOfOutputs(body))));
+            MultivariateRealFunction.varNames("y", CentralizedNumGridVSR.nOfOutputs(body))),
+        useSensorBank);
   }
 
   @SuppressWarnings("unused")
@@ -60,7 +62,8 @@ public class Agents {
       @Param("body") GridBody body,
       @Param("function") NumericalDynamicalSystems.Builder<?, ?> numericalDynamicalSystemBuilder,
       @Param("nOfSignals") int nOfSignals,
-      @Param("directional") boolean directional) {
+      @Param("directional") boolean directional,
+      @Param(value = "sensorBank") boolean useSensorBank) {
     return new DistributedNumGridVSR(
         body,
         Grid.create(
@@ -75,7 +78,8 @@ public class Agents {
                         "y",
                         DistributedNumGridVSR.nOfOutputs(body, k, nOfSignals, directional)))),
         nOfSignals,
-        directional);
+        directional,
+        useSensorBank);
   }
 
   @SuppressWarnings("unused")
@@ -24,11 +24,13 @@ import io.github.ericmedvet.jnb.core.Discoverable;
 import io.github.ericmedvet.jnb.core.Param;
 import io.github.ericmedvet.mrsim2d.core.Snapshot;
 import io.github.ericmedvet.mrsim2d.core.engine.Engine;
+import io.github.ericmedvet.mrsim2d.core.engine.EngineFactory;
 import io.github.ericmedvet.mrsim2d.core.geometry.BoundingBox;
 import io.github.ericmedvet.mrsim2d.core.geometry.Point;
 import io.github.ericmedvet.mrsim2d.core.tasks.AgentsObservation;
 import io.github.ericmedvet.mrsim2d.core.tasks.AgentsOutcome;
 import io.github.ericmedvet.mrsim2d.core.tasks.Task;
+import io.github.ericmedvet.mrsim2d.engine.dyn4j.Dyn4JEngine;
 import io.github.ericmedvet.mrsim2d.viewer.ComponentDrawer;
 import io.github.ericmedvet.mrsim2d.viewer.Drawer;
 import io.github.ericmedvet.mrsim2d.viewer.Drawers;
@@ -53,7 +55,6 @@ import io.github.ericmedvet.mrsim2d.viewer.framers.StaticFramer;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
-import java.util.ServiceLoader;
 import java.util.function.Function;
 import java.util.function.Supplier;
 
@@ -156,8 +157,19 @@ public class Miscs {
   }
 
   @SuppressWarnings("unused")
-  public static Supplier<Engine> engine() {
-    return () -> ServiceLoader.load(Engine.class).findFirst().orElseThrow();
+  public static Supplier<Engine> engine(
+      @Param(value = "actMode", dS = "sequential") Engine.ActMode actMode,
+      @Param(value = "quiescenceTime", dD = Double.POSITIVE_INFINITY) double quiescenceTime,
+      // fast solvers step by 1/30 s rather than 1/60 s: tick-based values (as the number of ticks, the stop check
+      // interval, and the controllers stepped at each tick) depend on the solver quality
+      @Param(value = "solverQuality", dS = "accurate") Dyn4JEngine.SolverQuality solverQuality,
+      @Param(value = "voxelGridAssembly", dS = "welded") Dyn4JEngine.VoxelGridAssembly voxelGridAssembly) {
+    EngineFactory engineFactory = Dyn4JEngine.factory(quiescenceTime, solverQuality, voxelGridAssembly);
+    return () -> {
+      Engine engine = engineFactory.get();
+      engine.setActMode(actMode);
+      return engine;
+    };
   }
 
   @SuppressWarnings("unused")
@@ -173,7 +185,11 @@ public class Miscs {
   public static <A, S extends AgentsObservation, O extends AgentsOutcome<S>> Function<A, O> taskRunner(
       @Param("task") Task<A, S, O> task,
       @Param(value = "engine", dNPM = "sim.engine()") Supplier<Engine> engineSupplier) {
-    return a -> task.run(a, engineSupplier.get());
+    return a -> {
+      Engine engine = engineSupplier.get();
+      engine.setSnapshotPolicy(Engine.SnapshotPolicy.NONE);
+      return task.run(a, engine);
+    };
   }
 
   @SuppressWarnings("unused")
@@ -0,0 +1,57 @@
+/*-
+ * ========================LICENSE_START=================================
+ * mrsim2d-buildable
+ * %%
+ * Copyright (C) 2020 - 2024 Eric Medvet
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package io.github.ericmedvet.mrsim2d.buildable.builders;
+
+import io.github.ericmedvet.jnb.core.Discoverable;
+import io.github.ericmedvet.jnb.core.Param;
+import io.github.ericmedvet.mrsim2d.core.tasks.StopCondition;
+import java.util.List;
+
+@Discoverable(prefixTemplate = "sim|s.stopCondition|sc")
+public class StopConditions {
+  private StopConditions() {}
+
+  @SuppressWarnings("unused")
+  public static StopCondition any(@Param("conditions") List<StopCondition> conditions) {
+    return StopCondition.any(conditions);
+  }
+
+  @SuppressWarnings("unused")
+  public static StopCondition belowTerrain(@Param(value = "margin", dD = 1) double margin) {
+    return StopCondition.belowTerrain(margin);
+  }
+
+  @SuppressWarnings("unused")
+  public static StopCondition never() {
+    return StopCondition.NEVER;
+  }
+
+  @SuppressWarnings("unused")
+  public static StopCondition noXProgress(
+      @Param(value = "timeWindow", dD = 5) double timeWindow,
+      @Param(value = "minDistance", dD = 1) double minDistance) {
+    return StopCondition.noXProgress(timeWindow, minDistance);
+  }
+
+  @SuppressWarnings("unused")
+  public static StopCondition wallClockBudget(@Param(value = "seconds", dD = 60) double seconds) {
+    return StopCondition.wallClockBudget(seconds);
+  }
+}
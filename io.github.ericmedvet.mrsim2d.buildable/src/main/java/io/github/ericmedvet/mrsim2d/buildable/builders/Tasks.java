@@ -25,6 +25,7 @@ import io.github.ericmedvet.jnb.core.Param;
 import io.github.ericmedvet.jnb.datastructure.Grid;
 import io.github.ericmedvet.mrsim2d.core.agents.gridvsr.GridBody.VoxelType;
 import io.github.ericmedvet.mrsim2d.core.geometry.Terrain;
+import io.github.ericmedvet.mrsim2d.core.tasks.StopCondition;
 import io.github.ericmedvet.mrsim2d.core.tasks.balancing.Balancing;
 import io.github.ericmedvet.mrsim2d.core.tasks.jumping.Jumping;
 import io.github.ericmedvet.mrsim2d.core.tasks.locomotion.Locomotion;
@@ -46,17 +47,37 @@ public class Tasks {
       @Param(value = "randomGenerator", dNPM = "m.defaultRG()") RandomGenerator randomGenerator,
       @Param(value = "terrain", dNPM = "sim.terrain.flat()") Terrain terrain,
       @Param(value = "yGapRatio", dD = 1d) double yGapRatio,
-      @Param(value = "xGap", dD = 10d) double xGap) {
+      @Param(value = "xGap", dD = 10d) double xGap,
+      @Param(value = "keepObservations") boolean keepObservations,
+      @Param(value = "observationInterval", dD = 0) double observationInterval,
+      @Param(value = "stopCondition", dNPM = "sim.stopCondition.never()") StopCondition stopCondition,
+      @Param(value = "stopCheckInterval", dI = 10) int stopCheckInterval) {
 
     return new FallPiling(
-        duration, fallInterval, nOfAgents, xSigmaRatio, randomGenerator, terrain, yGapRatio, xGap);
+        duration,
+        fallInterval,
+        nOfAgents,
+        xSigmaRatio,
+        randomGenerator,
+        terrain,
+        yGapRatio,
+        xGap,
+        keepObservations,
+        observationInterval,
+        stopCondition,
+        stopCheckInterval);
   }
 
   @SuppressWarnings("unused")
   public static Jumping jumping(
       @Param(value = "duration", dD = 10) double duration,
-      @Param(value = "initialYGap", dD = 0.1) double initialYGap) {
-    return new Jumping(duration, initialYGap);
+      @Param(value = "initialYGap", dD = 0.1) double initialYGap,
+      @Param(value = "keepObservations") boolean keepObservations,
+      @Param(value = "observationInterval", dD = 0) double observationInterval,
+      @Param(value = "stopCondition", dNPM = "sim.stopCondition.never()") StopCondition stopCondition,
+      @Param(value = "stopCheckInterval", dI = 10) int stopCheckInterval) {
+    return new Jumping(
+        duration, initialYGap, keepObservations, observationInterval, stopCondition, stopCheckInterval);
   }
 
   @SuppressWarnings("unused")
@@ -66,8 +87,22 @@ public class Tasks {
       @Param(value = "swingDensity", dD = 0.1) double swingDensity,
       @Param(value = "supportHeight", dD = 1.0) double supportHeight,
       @Param(value = "initialXGap", dD = 0.0) double initialXGap,
-      @Param(value = "initialYGap", dD = 0.1) double initialYGap) {
-    return new Balancing(duration, swingLength, swingDensity, supportHeight, initialXGap, initialYGap);
+      @Param(value = "initialYGap", dD = 0.1) double initialYGap,
+      @Param(value = "keepObservations") boolean keepObservations,
+      @Param(value = "observationInterval", dD = 0) double observationInterval,
+      @Param(value = "stopCondition", dNPM = "sim.stopCondition.never()") StopCondition stopCondition,
+      @Param(value = "stopCheckInterval", dI = 10) int stopCheckInterval) {
+    return new Balancing(
+        duration,
+        swingLength,
+        swingDensity,
+        supportHeight,
+        initialXGap,
+        initialYGap,
+        keepObservations,
+        observationInterval,
+        stopCondition,
+        stopCheckInterval);
   }
 
   @SuppressWarnings("unused")
@@ -75,8 +110,20 @@ public class Tasks {
       @Param(value = "duration", dD = 30) double duration,
       @Param(value = "terrain", dNPM = "sim.terrain.flat()") Terrain terrain,
       @Param(value = "initialXGap", dD = 1) double initialXGap,
-      @Param(value = "initialYGap", dD = 0.1) double initialYGap) {
-    return new Locomotion(duration, terrain, initialXGap, initialYGap);
+      @Param(value = "initialYGap", dD = 0.1) double initialYGap,
+      @Param(value = "keepObservations") boolean keepObservations,
+      @Param(value = "observationInterval", dD = 0) double observationInterval,
+      @Param(value = "stopCondition", dNPM = "sim.stopCondition.never()") StopCondition stopCondition,
+      @Param(value = "stopCheckInterval", dI = 10) int stopCheckInterval) {
+    return new Locomotion(
+        duration,
+        terrain,
+        initialXGap,
+        initialYGap,
+        keepObservations,
+        observationInterval,
+        stopCondition,
+        stopCheckInterval);
   }
 
   @SuppressWarnings("unused")
@@ -85,8 +132,21 @@ public class Tasks {
       @Param(value = "terrain", dNPM = "sim.terrain.flat()") Terrain terrain,
       @Param(value = "initialXGap", dD = 1) double initialXGap,
       @Param(value = "initialYGap", dD = 0.1) double initialYGap,
-      @Param(value = "shape") Grid<VoxelType> shape) {
-    return new PrebuiltIndependentLocomotion(duration, terrain, initialXGap, initialYGap, shape);
+      @Param(value = "shape") Grid<VoxelType> shape,
+      @Param(value = "keepObservations") boolean keepObservations,
+      @Param(value = "observationInterval", dD = 0) double observationInterval,
+      @Param(value = "stopCondition", dNPM = "sim.stopCondition.never()") StopCondition stopCondition,
+      @Param(value = "stopCheckInterval", dI = 10) int stopCheckInterval) {
+    return new PrebuiltIndependentLocomotion(
+        duration,
+        terrain,
+        initialXGap,
+        initialYGap,
+        shape,
+        keepObservations,
+        observationInterval,
+        stopCondition,
+        stopCheckInterval);
   }
 
   @SuppressWarnings("unused")
@@ -96,7 +156,21 @@ public class Tasks {
       @Param(value = "xGapRatio", dD = 1) double xGapRatio,
       @Param(value = "terrain", dNPM = "sim.terrain.flat()") Terrain terrain,
       @Param(value = "firstXGap", dD = 10) double firstXGap,
-      @Param(value = "initialYGap", dD = 0.1) double initialYGap) {
-    return new StandPiling(duration, nOfAgents, xGapRatio, terrain, firstXGap, initialYGap);
+      @Param(value = "initialYGap", dD = 0.1) double initialYGap,
+      @Param(value = "keepObservations") boolean keepObservations,
+      @Param(value = "observationInterval", dD = 0) double observationInterval,
+      @Param(value = "stopCondition", dNPM = "sim.stopCondition.never()") StopCondition stopCondition,
+      @Param(value = "stopCheckInterval", dI = 10) int stopCheckInterval) {
+    return new StandPiling(
+        duration,
+        nOfAgents,
+        xGapRatio,
+        terrain,
+        firstXGap,
+        initialYGap,
+        keepObservations,
+        observationInterval,
+        stopCondition,
+        stopCheckInterval);
   }
 }
@@ -17,12 +17,10 @@
  * limitations under the License.
  * =========================LICENSE_END==================================
  */
-import io.github.ericmedvet.mrsim2d.core.engine.Engine;
-
 module io.github.ericmedvet.mrsim2d.buildable {
-  uses Engine;
-
+  requires java.logging;
   requires io.github.ericmedvet.mrsim2d.core;
+  requires io.github.ericmedvet.mrsim2d.engine.dyn4j;
   requires io.github.ericmedvet.mrsim2d.viewer;
   requires io.github.ericmedvet.jnb.core;
   requires io.github.ericmedvet.jsdynsym.buildable;
@@ -32,5 +30,6 @@ module io.github.ericmedvet.mrsim2d.buildable {
   opens io.github.ericmedvet.mrsim2d.buildable.builders to
       io.github.ericmedvet.jnb.core;
 
+  exports io.github.ericmedvet.mrsim2d.buildable;
   exports io.github.ericmedvet.mrsim2d.buildable.builders;
 }
@@ -0,0 +1,40 @@
+/*-
+ * ========================LICENSE_START=================================
+ * mrsim2d-core
+ * %%
+ * Copyright (C) 2020 - 2024 Eric Medvet
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+package io.github.ericmedvet.mrsim2d.core;
+
+public abstract class AbstractEmbodiedAgent implements EmbodiedAgent {
+
+  private Geometry geometry;
+
+  @Override
+  public Geometry geometry() {
+    // the geometry is cached until the engine invalidates it, i.e., until bodies move
+    if (geometry == null) {
+      geometry = EmbodiedAgent.super.geometry();
+    }
+    return geometry;
+  }
+
+  @Override
+  public void invalidateGeometry() {
+    geometry = null;
+  }
+}
@@ -24,20 +24,32 @@ import io.github.ericmedvet.mrsim2d.core.bodies.Body;
 import io.github.ericmedvet.mrsim2d.core.engine.ActionException;
 import io.github.ericmedvet.mrsim2d.core.geometry.BoundingBox;
 import io.github.ericmedvet.mrsim2d.core.geometry.Point;
+import io.github.ericmedvet.mrsim2d.core.geometry.Poly;
 import io.github.ericmedvet.mrsim2d.core.geometry.Shape;
 import java.util.List;
 
 public interface EmbodiedAgent extends Agent, Shape {
+  record Geometry(List<Poly> polys, BoundingBox boundingBox, Point center) {
+    public static Geometry of(List<Body> bodies) {
+      List<Poly> polys = bodies.stream().map(Body::poly).toList();
+      return new Geometry(
+          polys,
+          polys.stream()
+              .map(Poly::boundingBox)
+              .reduce(BoundingBox::enclosing)
+              .orElseThrow(),
+          // could be weighted by area
+          Point.average(polys.stream().map(Poly::center).toArray(Point[]::new)));
+    }
+  }
+
   void assemble(ActionPerformer actionPerformer) throws ActionException;
 
   List<Body> bodyParts();
 
   @Override
   default BoundingBox boundingBox() {
-    return bodyParts().stream()
-        .map(b -> b.poly().boundingBox())
-        .reduce(BoundingBox::enclosing)
-        .orElseThrow();
+    return geometry().boundingBox();
   }
 
   @Override
@@ -47,7 +59,12 @@ public interface EmbodiedAgent extends Agent, Shape {
 
   @Override
   default Point center() {
-    // could be weighted by area
-    return Point.average(bodyParts().stream().map(b -> b.poly().center()).toArray(Point[]::new));
+    return geometry().center();
   }
+
+  default Geometry geometry() {
+    return Geometry.of(bodyParts());
+  }
+
+  default void invalidateGeometry() {}
 }
@@ -0,0 +1,77 @@
+/*-
+ * ========================LICENSE_START=================================
+ * mrsim2d-core
+ * %%
+ * Copyright (C) 2020 - 2024 Eric Medvet
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package io.github.ericmedvet.mrsim2d.core;
+
+import io.github.ericmedvet.jnb.datastructure.DoubleRange;
+import io.github.ericmedvet.mrsim2d.core.actions.Sense;
+import java.util.List;
+
+public class SensorBank {
+
+  private final List<Sense<?>> senses;
+  private final DoubleRange outputRange;
+  private final double[] mins;
+  private final double[] maxs;
+  private final double[] rawValues;
+  private final double[] values;
+
+  public SensorBank(List<? extends Sense<?>> senses, DoubleRange outputRange) {
+    this.senses = List.copyOf(senses);
+    this.outputRange = outputRange;
+    mins = new double[senses.size()];
+    maxs = new double[senses.size()];
+    for (int i = 0; i < senses.size(); i = i + 1) {
+      DoubleRange range = senses.get(i).range();
+      mins[i] = range.min();
+      maxs[i] = range.max();
+    }
+    rawValues = new double[senses.size()];
+    values = new double[senses.size()];
+  }
+
+  public void normalize() {
+    double outputMin = outputRange.min();
+    double outputExtent = outputRange.extent();
+    for (int i = 0; i < rawValues.length; i = i + 1) {
+      double v = Math.min(maxs[i], Math.max(mins[i], rawValues[i]));
+      values[i] = outputMin + outputExtent * (v - mins[i]) / (maxs[i] - mins[i]);
+    }
+  }
+
+  public DoubleRange outputRange() {
+    return outputRange;
+  }
+
+  public double[] rawValues() {
+    return rawValues;
+  }
+
+  public List<Sense<?>> senses() {
+    return senses;
+  }
+
+  public int size() {
+    return senses.size();
+  }
+
+  public double[] values() {
+    return values;
+  }
+}
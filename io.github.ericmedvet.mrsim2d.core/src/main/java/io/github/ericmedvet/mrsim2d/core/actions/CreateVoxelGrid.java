@@ -0,0 +1,91 @@
+/*-
+ * ========================LICENSE_START=================================
+ * mrsim2d-core
+ * %%
+ * Copyright (C) 2020 - 2024 Eric Medvet
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+package io.github.ericmedvet.mrsim2d.core.actions;
+
+import io.github.ericmedvet.jnb.datastructure.Grid;
+import io.github.ericmedvet.mrsim2d.core.Action;
+import io.github.ericmedvet.mrsim2d.core.ActionPerformer;
+import io.github.ericmedvet.mrsim2d.core.Agent;
+import io.github.ericmedvet.mrsim2d.core.SelfDescribedAction;
+import io.github.ericmedvet.mrsim2d.core.bodies.Anchor;
+import io.github.ericmedvet.mrsim2d.core.bodies.Anchorable;
+import io.github.ericmedvet.mrsim2d.core.bodies.Voxel;
+import io.github.ericmedvet.mrsim2d.core.engine.ActionException;
+import io.github.ericmedvet.mrsim2d.core.geometry.BoundingBox;
+import io.github.ericmedvet.mrsim2d.core.geometry.Point;
+
+// engines may assemble the grid in their own way, e.g., with adjacent voxels sharing their vertexes: such voxels
+// cannot be removed
+public record CreateVoxelGrid(double sideLength, double mass, Grid<Voxel.Material> materials)
+    implements SelfDescribedAction<Grid<Voxel>> {
+
+  public static <A extends Anchorable> Grid<A> assemble(
+      ActionPerformer performer,
+      Agent agent,
+      Grid<? extends Action<? extends A>> creations,
+      double sideLength,
+      Anchor.Link.Type linkType)
+      throws ActionException {
+    // create and translate, with the left upper corner of the body at (x,y) in (x*sideLength,y*sideLength)
+    Grid<A> bodies = Grid.create(creations.w(), creations.h());
+    for (Grid.Key key : creations.keys()) {
+      Action<? extends A> creation = creations.get(key);
+      if (creation != null) {
+        A body = create(performer, agent, creation);
+        performer.perform(
+            new TranslateBodyAt(
+                body, BoundingBox.Anchor.LU, new Point(key.x() * sideLength, key.y() * sideLength)),
+            agent);
+        bodies.set(key, body);
+      }
+    }
+    // attach adjacent bodies
+    for (Grid.Key key : bodies.keys()) {
+      A body = bodies.get(key);
+      if (body != null) {
+        for (Grid.Key otherKey : new Grid.Key[] {key.translated(1, 0), key.translated(0, 1)}) {
+          if (bodies.isValid(otherKey) && bodies.get(otherKey) != null) {
+            performer.perform(new AttachClosestAnchors(2, body, bodies.get(otherKey), linkType), agent);
+          }
+        }
+      }
+    }
+    return bodies;
+  }
+
+  private static <A extends Anchorable> A create(ActionPerformer performer, Agent agent, Action<A> creation)
+      throws ActionException {
+    return performer
+        .perform(creation, agent)
+        .outcome()
+        .orElseThrow(() -> new ActionException(creation, "Cannot create body"));
+  }
+
+  @Override
+  public Grid<Voxel> perform(ActionPerformer performer, Agent agent) throws ActionException {
+    return assemble(
+        performer,
+        agent,
+        materials.map(m -> m == null ? null : new CreateVoxel(sideLength, mass, m)),
+        sideLength,
+        Anchor.Link.Type.RIGID);
+  }
+}
@@ -32,7 +32,7 @@ public record SenseSideCompression(Voxel.Side side, Voxel body) implements Sense
   @Override
   public Double perform(ActionPerformer performer, Agent agent) {
     double avgL = Math.sqrt(body.areaRatio() * body.restArea());
-    return RANGE.clip(body.vertex(side.getVertex1()).distance(body.vertex(side.getVertex2())) / avgL);
+    return RANGE.clip(body.sideLength(side) / avgL);
   }
 
   @Override
@@ -21,22 +21,22 @@
 package io.github.ericmedvet.mrsim2d.core.agents.gridvsr;
 
 import io.github.ericmedvet.jnb.datastructure.Grid;
+import io.github.ericmedvet.mrsim2d.core.AbstractEmbodiedAgent;
+import io.github.ericmedvet.mrsim2d.core.Action;
 import io.github.ericmedvet.mrsim2d.core.ActionPerformer;
-import io.github.ericmedvet.mrsim2d.core.EmbodiedAgent;
-import io.github.ericmedvet.mrsim2d.core.actions.AttachClosestAnchors;
 import io.github.ericmedvet.mrsim2d.core.actions.CreateRigidBody;
 import io.github.ericmedvet.mrsim2d.core.actions.CreateVoxel;
-import io.github.ericmedvet.mrsim2d.core.actions.TranslateBodyAt;
+import io.github.ericmedvet.mrsim2d.core.actions.CreateVoxelGrid;
 import io.github.ericmedvet.mrsim2d.core.bodies.Anchor;
 import io.github.ericmedvet.mrsim2d.core.bodies.Anchorable;
 import io.github.ericmedvet.mrsim2d.core.bodies.Body;
-import io.github.ericmedvet.mrsim2d.core.geometry.BoundingBox;
-import io.github.ericmedvet.mrsim2d.core.geometry.Point;
+import io.github.ericmedvet.mrsim2d.core.bodies.Voxel;
+import io.github.ericmedvet.mrsim2d.core.engine.ActionException;
 import io.github.ericmedvet.mrsim2d.core.geometry.Poly;
 import java.util.List;
 import java.util.Objects;
 
-public abstract class AbstractGridVSR implements EmbodiedAgent {
+public abstract class AbstractGridVSR extends AbstractEmbodiedAgent {
 
   protected static final double VOXEL_SIDE_LENGTH = 1d;
   protected static final double VOXEL_MASS = 1d;
@@ -54,60 +54,31 @@ public abstract class AbstractGridVSR implements EmbodiedAgent {
   }
 
   @Override
-  public void assemble(ActionPerformer actionPerformer) {
-    // create and translate
-    elementGrid.entries().stream()
-        .filter(e -> !e.value().type().equals(GridBody.VoxelType.NONE))
-        .forEach(e -> {
-          Anchorable anchorable =
-              switch (e.value().type()) {
-                case SOFT -> actionPerformer
-                    .perform(
-                        new CreateVoxel(
-                            voxelSideLength,
-                            voxelMass,
-                            e.value().material()),
-                        this)
-                    .outcome()
-                    .orElseThrow();
-                case RIGID -> actionPerformer
-                    .perform(
-                        new CreateRigidBody(
-                            Poly.square(voxelSideLength), voxelMass, 3d / voxelSideLength),
-                        this)
-                    .outcome()
-                    .orElseThrow();
-                default -> throw new IllegalStateException(
-                    "Unexpected value: " + e.value().type());
-              };
-          actionPerformer.perform(
-              new TranslateBodyAt(
-                  anchorable,
-                  BoundingBox.Anchor.LU,
-                  new Point(
-                      e.key().x() * voxelSideLength,
-                      e.key().y() * voxelSideLength)),
-              this);
-          bodyGrid.set(e.key(), anchorable);
-        });
-    // attach
-    for (Grid.Key key : bodyGrid.keys()) {
-      Anchorable srcBody = bodyGrid.get(key);
-      if (srcBody != null) {
-        if (bodyGrid.isValid(key.translated(1, 0))) {
-          Anchorable other = bodyGrid.get(key.translated(1, 0));
-          if (other != null) {
-            actionPerformer.perform(new AttachClosestAnchors(2, srcBody, other, LINK_TYPE), this);
-          }
-        }
-        if (bodyGrid.isValid(key.translated(0, 1))) {
-          Anchorable other = bodyGrid.get(key.translated(0, 1));
-          if (other != null) {
-            actionPerformer.perform(new AttachClosestAnchors(2, srcBody, other, LINK_TYPE), this);
-          }
-        }
-      }
+  public void assemble(ActionPerformer actionPerformer) throws ActionException {
+    // grids of soft voxels only are created at once, so that the engine may assemble them in its own way
+    if (elementGrid.values().stream().noneMatch(e -> e.type().equals(GridBody.VoxelType.RIGID))) {
+      Grid<Voxel> voxelGrid = actionPerformer
+          .perform(
+              new CreateVoxelGrid(
+                  voxelSideLength,
+                  voxelMass,
+                  elementGrid.map(
+                      e -> e.type().equals(GridBody.VoxelType.SOFT) ? e.material() : null)),
+              this)
+          .outcome()
+          .orElseThrow();
+      voxelGrid.entries().forEach(e -> bodyGrid.set(e.key(), e.value()));
+      return;
     }
+    // otherwise, bodies are created, translated, and attached as in the grid of voxels
+    Grid<Action<? extends Anchorable>> creations = elementGrid.map(e -> switch (e.type()) {
+      case SOFT -> new CreateVoxel(voxelSideLength, voxelMass, e.material());
+      case RIGID -> new CreateRigidBody(Poly.square(voxelSideLength), voxelMass, 3d / voxelSideLength);
+      case NONE -> null;
+    });
+    CreateVoxelGrid.assemble(actionPerformer, this, creations, voxelSideLength, LINK_TYPE)
+        .entries()
+        .forEach(e -> bodyGrid.set(e.key(), e.value()));
   }
 
   @SuppressWarnings({"unchecked", "rawtypes"})
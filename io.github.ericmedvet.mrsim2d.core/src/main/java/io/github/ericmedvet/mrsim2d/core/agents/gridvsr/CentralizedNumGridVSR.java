@@ -37,14 +37,28 @@ public class CentralizedNumGridVSR extends NumGridVSR implements NumBrained {
       GridBody body,
       double voxelSideLength,
       double voxelMass,
-      NumericalDynamicalSystem<?> numericalDynamicalSystem) {
-    super(body, voxelSideLength, voxelMass);
+      NumericalDynamicalSystem<?> numericalDynamicalSystem,
+      boolean useSensorBank) {
+    super(body, voxelSideLength, voxelMass, useSensorBank);
     numericalDynamicalSystem.checkDimension(nOfInputs(body), nOfOutputs(body));
     this.numericalDynamicalSystem = numericalDynamicalSystem;
   }
 
+  public CentralizedNumGridVSR(
+      GridBody body,
+      double voxelSideLength,
+      double voxelMass,
+      NumericalDynamicalSystem<?> numericalDynamicalSystem) {
+    this(body, voxelSideLength, voxelMass, numericalDynamicalSystem, false);
+  }
+
+  public CentralizedNumGridVSR(
+      GridBody body, NumericalDynamicalSystem<?> numericalDynamicalSystem, boolean useSensorBank) {
+    this(body, VOXEL_SIDE_LENGTH, VOXEL_MASS, numericalDynamicalSystem, useSensorBank);
+  }
+
   public CentralizedNumGridVSR(GridBody body, NumericalDynamicalSystem<?> numericalDynamicalSystem) {
-    this(body, VOXEL_SIDE_LENGTH, VOXEL_MASS, numericalDynamicalSystem);
+    this(body, numericalDynamicalSystem, false);
   }
 
   public static int nOfInputs(GridBody body) {
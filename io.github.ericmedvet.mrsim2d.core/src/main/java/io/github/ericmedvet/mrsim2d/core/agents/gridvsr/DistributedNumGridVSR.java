@@ -22,13 +22,13 @@ package io.github.ericmedvet.mrsim2d.core.agents.gridvsr;
 
 import io.github.ericmedvet.jnb.datastructure.Grid;
 import io.github.ericmedvet.jsdynsym.core.numerical.NumericalDynamicalSystem;
+import io.github.ericmedvet.jsdynsym.core.numerical.ann.MultiLayerPerceptron;
 import io.github.ericmedvet.mrsim2d.core.NumMultiBrained;
 import io.github.ericmedvet.mrsim2d.core.Sensor;
 import io.github.ericmedvet.mrsim2d.core.bodies.Body;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
-import java.util.stream.Stream;
 
 public class DistributedNumGridVSR extends NumGridVSR implements NumMultiBrained {
 
@@ -39,13 +39,20 @@ public class DistributedNumGridVSR extends NumGridVSR implements NumMultiBrained
 
   private final Grid<double[]> fullInputsGrid;
   private final Grid<double[]> fullOutputsGrid;
+  private final Grid<double[]> actuationValuesGrid;
+  private final Grid.Key[] brainKeys;
+  private final NumericalDynamicalSystem<?>[] brains;
+  private final double[][] brainInputs;
+  private final double[][] brainOutputs;
+  private final MultiLayerPerceptronBatch multiLayerPerceptronBatch;
 
   public DistributedNumGridVSR(
       GridBody body,
       Grid<NumericalDynamicalSystem<?>> numericalDynamicalSystemGrid,
       int nOfSignals,
-      boolean directional) {
-    super(body);
+      boolean directional,
+      boolean useSensorBank) {
+    super(body, VOXEL_SIDE_LENGTH, VOXEL_MASS, useSensorBank);
     int communicationSize = directional ? nOfSignals * 4 : nOfSignals;
     body.grid().entries().forEach(e -> {
       if (e.value().element().type().equals(GridBody.VoxelType.NONE)) {
@@ -63,11 +70,114 @@ public class DistributedNumGridVSR extends NumGridVSR implements NumMultiBrained
     this.nOfSignals = nOfSignals;
     this.directional = directional;
     this.numericalDynamicalSystemGrid = numericalDynamicalSystemGrid;
-    signalsGrid = bodyGrid.map(v -> v != null ? new double[communicationSize] : null);
+    signalsGrid = numericalDynamicalSystemGrid.map(n -> n != null ? new double[communicationSize] : null);
     fullInputsGrid = Grid.create(
         body.grid().w(), body.grid().h(), k -> new double[nOfInputs(body, k, nOfSignals, directional)]);
     fullOutputsGrid = Grid.create(
         body.grid().w(), body.grid().h(), k -> new double[nOfOutputs(body, k, nOfSignals, directional)]);
+    actuationValuesGrid = Grid.create(body.grid().w(), body.grid().h(), k -> new double[4]);
+    // inputs and outputs of brains are packed in rows which are shared with the full inputs and outputs grids
+    brainKeys = numericalDynamicalSystemGrid.keys().stream()
+        .filter(k -> numericalDynamicalSystemGrid.get(k) != null)
+        .toArray(Grid.Key[]::new);
+    brains = Arrays.stream(brainKeys)
+        .map(numericalDynamicalSystemGrid::get)
+        .toArray(NumericalDynamicalSystem<?>[]::new);
+    brainInputs = Arrays.stream(brainKeys).map(fullInputsGrid::get).toArray(double[][]::new);
+    brainOutputs = Arrays.stream(brainKeys).map(fullOutputsGrid::get).toArray(double[][]::new);
+    multiLayerPerceptronBatch = MultiLayerPerceptronBatch.of(brains);
+  }
+
+  public DistributedNumGridVSR(
+      GridBody body,
+      Grid<NumericalDynamicalSystem<?>> numericalDynamicalSystemGrid,
+      int nOfSignals,
+      boolean directional) {
+    this(body, numericalDynamicalSystemGrid, nOfSignals, directional, false);
+  }
+
+  // when all the voxel brains are MLPs with the same weights, e.g., the same MLP in every voxel, they are evaluated
+  // together: each layer is the product of a matrix with one row per voxel and the shared weight matrix
+  record MultiLayerPerceptronBatch(MultiLayerPerceptron[] multiLayerPerceptrons, double[][] layers) {
+
+    static MultiLayerPerceptronBatch of(NumericalDynamicalSystem<?>[] brains) {
+      if (brains.length == 0) {
+        return null;
+      }
+      MultiLayerPerceptron[] multiLayerPerceptrons = new MultiLayerPerceptron[brains.length];
+      for (int i = 0; i < brains.length; i = i + 1) {
+        // subclasses might compute differently
+        if (brains[i] == null || !brains[i].getClass().equals(MultiLayerPerceptron.class)) {
+          return null;
+        }
+        multiLayerPerceptrons[i] = (MultiLayerPerceptron) brains[i];
+        if (!multiLayerPerceptrons[i]
+                .getActivationFunction()
+                .equals(multiLayerPerceptrons[0].getActivationFunction())
+            || !Arrays.equals(
+                multiLayerPerceptrons[i].getNeurons(), multiLayerPerceptrons[0].getNeurons())) {
+          return null;
+        }
+      }
+      return new MultiLayerPerceptronBatch(
+          multiLayerPerceptrons,
+          Arrays.stream(multiLayerPerceptrons[0].getNeurons())
+              .mapToObj(n -> new double[brains.length * n])
+              .toArray(double[][]::new));
+    }
+
+    // weights are taken from the brains at each step, since they might have been replaced
+    private double[][][] sharedWeights() {
+      double[][][] weights = multiLayerPerceptrons[0].getWeights();
+      for (int i = 1; i < multiLayerPerceptrons.length; i = i + 1) {
+        if (multiLayerPerceptrons[i] != multiLayerPerceptrons[0]
+            && multiLayerPerceptrons[i].getWeights() != weights) {
+          return null;
+        }
+      }
+      return weights;
+    }
+
+    boolean compute(double[][] inputs, double[][] outputs) {
+      double[][][] weights = sharedWeights();
+      if (weights == null) {
+        return false;
+      }
+      MultiLayerPerceptron.ActivationFunction activationFunction =
+          multiLayerPerceptrons[0].getActivationFunction();
+      int[] neurons = multiLayerPerceptrons[0].getNeurons();
+      int nOfRows = multiLayerPerceptrons.length;
+      // the activation function is applied also to inputs, as in the MLP
+      double[] inputLayer = layers[0];
+      for (int b = 0; b < nOfRows; b = b + 1) {
+        for (int k = 0; k < neurons[0]; k = k + 1) {
+          inputLayer[b * neurons[0] + k] = activationFunction.applyAsDouble(inputs[b][k]);
+        }
+      }
+      for (int l = 1; l < neurons.length; l = l + 1) {
+        double[] in = layers[l - 1];
+        double[] out = layers[l];
+        int nOfIn = neurons[l - 1];
+        int nOfOut = neurons[l];
+        for (int j = 0; j < nOfOut; j = j + 1) {
+          double[] neuronWeights = weights[l - 1][j];
+          for (int b = 0; b < nOfRows; b = b + 1) {
+            // bias first, then inputs in the same order as the MLP, so that results are the same
+            double sum = neuronWeights[0];
+            for (int k = 0; k < nOfIn; k = k + 1) {
+              sum = sum + in[b * nOfIn + k] * neuronWeights[k + 1];
+            }
+            out[b * nOfOut + j] = activationFunction.applyAsDouble(sum);
+          }
+        }
+      }
+      double[] outputLayer = layers[neurons.length - 1];
+      int nOfOutputs = neurons[neurons.length - 1];
+      for (int b = 0; b < nOfRows; b = b + 1) {
+        System.arraycopy(outputLayer, b * nOfOutputs, outputs[b], 0, nOfOutputs);
+      }
+      return true;
+    }
   }
 
   public static int nOfInputs(GridBody body, Grid.Key key, int nOfSignals, boolean directional) {
@@ -106,57 +216,48 @@ public class DistributedNumGridVSR extends NumGridVSR implements NumMultiBrained
 
   @Override
   protected Grid<double[]> computeActuationValues(double t, Grid<double[]> inputsGrid) {
-    // create actual input grid (concat sensed values and communication signals)
-    for (Grid.Key key : inputsGrid.keys()) {
-      if (inputsGrid.get(key) == null) {
-        continue;
-      }
+    // fill actual inputs (concat sensed values and communication signals)
+    for (int i = 0; i < brainKeys.length; i = i + 1) {
+      Grid.Key key = brainKeys[i];
       double[] sensoryInputs = inputsGrid.get(key);
-      double[] signals0 = getLastSignals(key.x(), key.y() + 1, 0);
-      double[] signals1 = getLastSignals(key.x() + 1, key.y(), 1);
-      double[] signals2 = getLastSignals(key.x(), key.y() - 1, 2);
-      double[] signals3 = getLastSignals(key.x() - 1, key.y(), 3);
-      double[] fullInputs = Stream.of(sensoryInputs, signals0, signals1, signals2, signals3)
-          .flatMapToDouble(Arrays::stream)
-          .toArray();
-      fullInputsGrid.set(key, fullInputs);
-    }
-    // process values
-    for (Grid.Key key : numericalDynamicalSystemGrid.keys()) {
-      if (numericalDynamicalSystemGrid.get(key) == null) {
+      if (sensoryInputs == null) {
         continue;
       }
-      double[] inputs = fullInputsGrid.get(key);
-      if (inputs.length != numericalDynamicalSystemGrid.get(key).nOfInputs()) {
+      double[] inputs = brainInputs[i];
+      if (inputs.length != brains[i].nOfInputs()) {
         throw new IllegalArgumentException(String.format(
             "Wrong number of inputs in position (%d,%d): %d expected, %d found",
-            key.x(), key.y(), numericalDynamicalSystemGrid.get(key).nOfInputs(), inputs.length));
+            key.x(), key.y(), brains[i].nOfInputs(), inputs.length));
       }
-      fullOutputsGrid.set(key, numericalDynamicalSystemGrid.get(key).step(t, inputs));
+      System.arraycopy(sensoryInputs, 0, inputs, 0, sensoryInputs.length);
+      int offset = sensoryInputs.length;
+      copyLastSignals(key.x(), key.y() + 1, 0, inputs, offset);
+      copyLastSignals(key.x() + 1, key.y(), 1, inputs, offset + nOfSignals);
+      copyLastSignals(key.x(), key.y() - 1, 2, inputs, offset + 2 * nOfSignals);
+      copyLastSignals(key.x() - 1, key.y(), 3, inputs, offset + 3 * nOfSignals);
     }
-    // split actuation and communication for next step
-    Grid<double[]> outputsGrid = Grid.create(inputsGrid.w(), inputsGrid.h(), new double[4]);
-    for (Grid.Key key : fullOutputsGrid.keys()) {
-      if (fullOutputsGrid.get(key) == null) {
-        continue;
+    // process values, once all the inputs have been filled since signals are overwritten afterward
+    if (multiLayerPerceptronBatch == null || !multiLayerPerceptronBatch.compute(brainInputs, brainOutputs)) {
+      for (int i = 0; i < brainKeys.length; i = i + 1) {
+        double[] outputs = brains[i].step(t, brainInputs[i]);
+        System.arraycopy(outputs, 0, brainOutputs[i], 0, brainOutputs[i].length);
       }
-      double[] fullOutputs = fullOutputsGrid.get(key);
-      double actuationValue = fullOutputs[0];
-      double[] signals = Arrays.stream(fullOutputs, 1, fullOutputs.length).toArray();
-      outputsGrid.set(key, new double[] {actuationValue, actuationValue, actuationValue, actuationValue});
-      signalsGrid.set(key, signals);
     }
-    return outputsGrid;
+    // split actuation and communication for next step
+    for (int i = 0; i < brainKeys.length; i = i + 1) {
+      double[] fullOutputs = brainOutputs[i];
+      Arrays.fill(actuationValuesGrid.get(brainKeys[i]), fullOutputs[0]);
+      double[] signals = signalsGrid.get(brainKeys[i]);
+      System.arraycopy(fullOutputs, 1, signals, 0, signals.length);
+    }
+    return actuationValuesGrid;
   }
 
-  private double[] getLastSignals(int x, int y, int c) {
+  private void copyLastSignals(int x, int y, int c, double[] dst, int offset) {
     if (x < 0 || y < 0 || x >= signalsGrid.w() || y >= signalsGrid.h() || signalsGrid.get(x, y) == null) {
-      return new double[nOfSignals];
+      Arrays.fill(dst, offset, offset + nOfSignals, 0d);
+      return;
     }
-    double[] allSignals = signalsGrid.get(x, y);
-    return directional
-        ? Arrays.stream(allSignals, c * nOfSignals, (c + 1) * nOfSignals)
-            .toArray()
-        : allSignals;
+    System.arraycopy(signalsGrid.get(x, y), directional ? c * nOfSignals : 0, dst, offset, nOfSignals);
   }
 }
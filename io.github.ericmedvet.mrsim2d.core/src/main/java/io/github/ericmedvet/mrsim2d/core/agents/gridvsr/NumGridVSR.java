@@ -24,37 +24,46 @@ import io.github.ericmedvet.jnb.datastructure.DoubleRange;
 import io.github.ericmedvet.jnb.datastructure.Grid;
 import io.github.ericmedvet.mrsim2d.core.Action;
 import io.github.ericmedvet.mrsim2d.core.ActionOutcome;
+import io.github.ericmedvet.mrsim2d.core.ActionPerformer;
 import io.github.ericmedvet.mrsim2d.core.Sensor;
+import io.github.ericmedvet.mrsim2d.core.SensorBank;
 import io.github.ericmedvet.mrsim2d.core.actions.ActuateVoxel;
+import io.github.ericmedvet.mrsim2d.core.actions.AddSensorBank;
 import io.github.ericmedvet.mrsim2d.core.actions.Sense;
+import io.github.ericmedvet.mrsim2d.core.bodies.Anchorable;
 import io.github.ericmedvet.mrsim2d.core.bodies.Body;
 import io.github.ericmedvet.mrsim2d.core.bodies.Voxel;
+import io.github.ericmedvet.mrsim2d.core.engine.ActionException;
 import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.Collection;
-import java.util.EnumMap;
 import java.util.List;
-import java.util.Map;
 
 public abstract class NumGridVSR extends AbstractGridVSR {
 
   protected static final DoubleRange INPUT_RANGE = DoubleRange.SYMMETRIC_UNIT;
   protected static final DoubleRange OUTPUT_RANGE = DoubleRange.SYMMETRIC_UNIT;
-  private static final Voxel.Side[] SIDES = new Voxel.Side[] {Voxel.Side.N, Voxel.Side.E, Voxel.Side.S, Voxel.Side.W};
   private final Grid<List<Sensor<? super Body>>> sensorsGrid;
   private final Grid<double[]> inputsGrid;
-  private final Grid<double[]> outputGrid;
   private final GridBody body;
+  private final boolean useSensorBank;
+  private SensorBank sensorBank;
+  private List<Sense<?>> senseActions;
+  private double[][] inputsRows;
+  private Grid.Key[] actuatedKeys;
+  private Voxel[] actuatedVoxels;
 
-  public NumGridVSR(GridBody body, double voxelSideLength, double voxelMass) {
+  public NumGridVSR(GridBody body, double voxelSideLength, double voxelMass, boolean useSensorBank) {
     super(body.grid().map(GridBody.SensorizedElement::element), voxelSideLength, voxelMass);
     this.sensorsGrid = body.grid().map(GridBody.SensorizedElement::sensors);
     this.body = body;
+    this.useSensorBank = useSensorBank;
     inputsGrid = body.grid()
         .map(e -> e.element().type().equals(GridBody.VoxelType.NONE)
             ? null
             : new double[e.sensors().size()]);
-    outputGrid = bodyGrid.map(v -> v != null ? new double[SIDES.length] : null);
+  }
+
+  public NumGridVSR(GridBody body, double voxelSideLength, double voxelMass) {
+    this(body, voxelSideLength, voxelMass, false);
   }
 
   public NumGridVSR(GridBody body) {
@@ -63,59 +72,100 @@ public abstract class NumGridVSR extends AbstractGridVSR {
 
   protected abstract Grid<double[]> computeActuationValues(double t, Grid<double[]> inputsGrid);
 
-  private static EnumMap<Voxel.Side, Double> sideMap(double[] values) {
-    return new EnumMap<>(Map.of(
-        Voxel.Side.N, values[0],
-        Voxel.Side.E, values[1],
-        Voxel.Side.S, values[2],
-        Voxel.Side.W, values[3]));
+  @Override
+  public void assemble(ActionPerformer actionPerformer) throws ActionException {
+    super.assemble(actionPerformer);
+    senseActions = null;
+    sensorBank = null;
+    if (useSensorBank) {
+      // if the engine does not support sensor banks, sense actions are used
+      sensorBank = actionPerformer
+          .perform(new AddSensorBank(new SensorBank(senses(), INPUT_RANGE)), this)
+          .outcome()
+          .orElse(null);
+    }
   }
 
   @Override
   public List<? extends Action<?>> act(double t, List<ActionOutcome<?, ?>> previousActionOutcomes) {
-    // read inputs from last request
-    if (!previousActionOutcomes.isEmpty()) {
+    if (senseActions == null) {
+      buildActions();
+    }
+    // read inputs from sensor bank, filled after the last engine step, or from last request
+    if (sensorBank != null) {
+      double[] values = sensorBank.values();
+      int c = 0;
+      for (double[] inputs : inputsRows) {
+        System.arraycopy(values, c, inputs, 0, inputs.length);
+        c = c + inputs.length;
+      }
+    } else if (!previousActionOutcomes.isEmpty()) {
       int c = 0;
-      for (Grid.Key key : inputsGrid.keys()) {
-        double[] inputs = inputsGrid.get(key);
-        if (inputs != null) {
-          for (int i = 0; i < inputs.length; i++) {
-            ActionOutcome<?, ?> outcome = previousActionOutcomes.get(c);
-            if (outcome.action() instanceof Sense<?>) {
-              @SuppressWarnings("unchecked")
-              ActionOutcome<? extends Sense<Voxel>, Double> o =
-                  (ActionOutcome<? extends Sense<Voxel>, Double>) outcome;
-              inputs[i] = INPUT_RANGE.denormalize(
-                  o.action().range().normalize(o.outcome().orElse(0d)));
-              c = c + 1;
-            }
+      for (double[] inputs : inputsRows) {
+        for (int i = 0; i < inputs.length; i++) {
+          ActionOutcome<?, ?> outcome = previousActionOutcomes.get(c);
+          if (outcome.action() instanceof Sense<?>) {
+            @SuppressWarnings("unchecked")
+            ActionOutcome<? extends Sense<Voxel>, Double> o =
+                (ActionOutcome<? extends Sense<Voxel>, Double>) outcome;
+            inputs[i] = INPUT_RANGE.denormalize(
+                o.action().range().normalize(o.outcome().orElse(0d)));
+            c = c + 1;
           }
         }
       }
     }
     // compute actuation
-    computeActuationValues(t, inputsGrid)
-        .entries()
-        .forEach(e -> outputGrid.set(
-            e.key(),
-            Arrays.stream(e.value()).map(OUTPUT_RANGE::clip).toArray()));
-    // generate next sense actions
-    List<Action<?>> actions = new ArrayList<>();
-    actions.addAll(bodyGrid.entries().stream()
-        .filter(e -> e.value() != null)
-        .map(e -> sensorsGrid.get(e.key()).stream()
-            .map(f -> f.apply(e.value()))
-            .toList())
-        .flatMap(Collection::stream)
-        .toList());
-    // generate actuation actions
-    actions.addAll(bodyGrid.entries().stream()
-        .filter(e -> e.value() instanceof Voxel)
-        .map(e -> new ActuateVoxel((Voxel) e.value(), sideMap(outputGrid.get(e.key()))))
-        .toList());
+    Grid<double[]> actuationValuesGrid = computeActuationValues(t, inputsGrid);
+    // actuation actions are new at each tick, since they may be kept in snapshots
+    List<Action<?>> actions = new ArrayList<>(senseActions.size() + actuatedVoxels.length);
+    actions.addAll(senseActions);
+    for (int i = 0; i < actuatedKeys.length; i = i + 1) {
+      double[] values = actuationValuesGrid.get(actuatedKeys[i]);
+      actions.add(new ActuateVoxel(
+          actuatedVoxels[i],
+          OUTPUT_RANGE.clip(values[0]),
+          OUTPUT_RANGE.clip(values[1]),
+          OUTPUT_RANGE.clip(values[2]),
+          OUTPUT_RANGE.clip(values[3])));
+    }
     return actions;
   }
 
+  private void buildActions() {
+    // sense actions do not change across ticks
+    List<double[]> inputsRows = new ArrayList<>();
+    List<Grid.Key> actuatedKeys = new ArrayList<>();
+    List<Voxel> actuatedVoxels = new ArrayList<>();
+    for (Grid.Entry<Anchorable> e : bodyGrid.entries()) {
+      if (e.value() != null) {
+        inputsRows.add(inputsGrid.get(e.key()));
+      }
+    }
+    for (Grid.Entry<Anchorable> e : bodyGrid.entries()) {
+      if (e.value() instanceof Voxel voxel) {
+        actuatedKeys.add(e.key());
+        actuatedVoxels.add(voxel);
+      }
+    }
+    this.senseActions = sensorBank == null ? senses() : List.of();
+    this.inputsRows = inputsRows.toArray(double[][]::new);
+    this.actuatedKeys = actuatedKeys.toArray(Grid.Key[]::new);
+    this.actuatedVoxels = actuatedVoxels.toArray(Voxel[]::new);
+  }
+
+  private List<Sense<?>> senses() {
+    List<Sense<?>> senses = new ArrayList<>();
+    for (Grid.Entry<Anchorable> e : bodyGrid.entries()) {
+      if (e.value() != null) {
+        for (Sensor<? super Body> sensor : sensorsGrid.get(e.key())) {
+          senses.add(sensor.apply(e.value()));
+        }
+      }
+    }
+    return senses;
+  }
+
   public GridBody getBody() {
     return body;
   }
@@ -20,8 +20,8 @@
 
 package io.github.ericmedvet.mrsim2d.core.agents.independentvoxel;
 
+import io.github.ericmedvet.mrsim2d.core.AbstractEmbodiedAgent;
 import io.github.ericmedvet.mrsim2d.core.ActionPerformer;
-import io.github.ericmedvet.mrsim2d.core.EmbodiedAgent;
 import io.github.ericmedvet.mrsim2d.core.actions.CreateVoxel;
 import io.github.ericmedvet.mrsim2d.core.bodies.Body;
 import io.github.ericmedvet.mrsim2d.core.bodies.Voxel;
@@ -29,7 +29,7 @@ import io.github.ericmedvet.mrsim2d.core.engine.ActionException;
 import java.util.List;
 import java.util.Optional;
 
-public abstract class AbstractIndependentVoxel implements EmbodiedAgent {
+public abstract class AbstractIndependentVoxel extends AbstractEmbodiedAgent {
 
   protected static final double VOXEL_SIDE_LENGTH = 1d;
   protected static final double VOXEL_MASS = 1d;
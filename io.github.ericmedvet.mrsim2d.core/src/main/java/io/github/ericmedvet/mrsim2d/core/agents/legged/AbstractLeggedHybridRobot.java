@@ -20,8 +20,8 @@
 
 package io.github.ericmedvet.mrsim2d.core.agents.legged;
 
+import io.github.ericmedvet.mrsim2d.core.AbstractEmbodiedAgent;
 import io.github.ericmedvet.mrsim2d.core.ActionPerformer;
-import io.github.ericmedvet.mrsim2d.core.EmbodiedAgent;
 import io.github.ericmedvet.mrsim2d.core.Sensor;
 import io.github.ericmedvet.mrsim2d.core.actions.*;
 import io.github.ericmedvet.mrsim2d.core.bodies.*;
@@ -32,7 +32,7 @@ import io.github.ericmedvet.mrsim2d.core.geometry.Poly;
 import java.util.ArrayList;
 import java.util.List;
 
-public abstract class AbstractLeggedHybridRobot implements EmbodiedAgent {
+public abstract class AbstractLeggedHybridRobot extends AbstractEmbodiedAgent {
 
   protected final List<Leg> legs;
   protected final double trunkLength;
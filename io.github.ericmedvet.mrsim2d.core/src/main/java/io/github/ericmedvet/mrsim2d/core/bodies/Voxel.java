@@ -86,4 +86,8 @@ public interface Voxel extends SoftBody, Anchorable {
   default Segment side(Side side) {
     return new Segment(vertex(side.getVertex1()), vertex(side.getVertex2()));
   }
+
+  default double sideLength(Side side) {
+    return vertex(side.getVertex1()).distance(vertex(side.getVertex2()));
+  }
 }
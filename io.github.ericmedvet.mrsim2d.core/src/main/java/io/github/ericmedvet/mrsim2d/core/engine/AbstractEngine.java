@@ -28,8 +28,6 @@ import io.github.ericmedvet.mrsim2d.core.bodies.Anchorable;
 import io.github.ericmedvet.mrsim2d.core.bodies.Body;
 import io.github.ericmedvet.mrsim2d.core.geometry.Point;
 import io.github.ericmedvet.mrsim2d.core.util.*;
-import java.time.Duration;
-import java.time.Instant;
 import java.util.*;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Logger;
@@ -40,31 +38,55 @@ public abstract class AbstractEngine implements Engine, Profiled {
 
   private static final Configuration DEFAULT_CONFIGURATION = new Configuration(2, 1.5, 5, 0.5, Math.PI / 2d, 8);
   private static final Logger L = Logger.getLogger(AbstractEngine.class.getName());
+  private static final AtomicInteger ACTION_CLASS_COUNTER = new AtomicInteger(0);
+  private static final ClassValue<Integer> ACTION_CLASS_IDS = new ClassValue<>() {
+    @Override
+    protected Integer computeValue(Class<?> type) {
+      return ACTION_CLASS_COUNTER.getAndIncrement();
+    }
+  };
+  private static final ActionSolver<?, ?> UNSUPPORTED_ACTION_SOLVER =
+      (ActionSolver<Action<Object>, Object>) (action, agent) -> null;
   protected final AtomicDouble t;
   protected final List<Body> bodies;
   protected final List<Pair<Agent, List<ActionOutcome<?, ?>>>> agentPairs;
+  private final List<Pair<Agent, SensorBank>> sensorBankPairs;
+  private final Map<Body, EmbodiedAgent> bodyAgents;
   private final Configuration configuration;
   private final Map<Class<? extends Action<?>>, ActionSolver<?, ?>> actionSolvers;
-  private final Instant startingInstant;
-  private final EnumMap<EngineSnapshot.TimeType, AtomicDouble> times;
-  private final EnumMap<EngineSnapshot.CounterType, AtomicInteger> counters;
-  private final List<ActionOutcome<?, ?>> lastTickPerformedActions;
-  private SpatialMap<NFCMessage> lastNFCMessages;
-  private SpatialMap<NFCMessage> newNFCMessages;
+  private ActionSolver<?, ?>[] dispatchTable;
+  private long startingNanoTime;
+  private final long[] timeNanos;
+  private final int[] counters;
+  private ActionProfile[] actionProfiles;
+  private List<ActionOutcome<?, ?>> lastTickPerformedActions;
+  private GridSpatialMap<NFCMessage> lastNFCMessages;
+  private GridSpatialMap<NFCMessage> newNFCMessages;
+  private SnapshotPolicy snapshotPolicy;
+  private ProfilingLevel profilingLevel;
+  private ActMode actMode;
 
   public AbstractEngine(Configuration configuration) {
     this.configuration = configuration;
     bodies = new ArrayList<>();
     agentPairs = new ArrayList<>();
+    sensorBankPairs = new ArrayList<>();
+    bodyAgents = new HashMap<>();
     actionSolvers = new LinkedHashMap<>();
+    dispatchTable = new ActionSolver<?, ?>[0];
     t = new AtomicDouble(0d);
     lastTickPerformedActions = new ArrayList<>();
-    lastNFCMessages = new HashSpatialMap<>(configuration.nfcDistanceRange);
-    times = new EnumMap<>(EngineSnapshot.TimeType.class);
-    counters = new EnumMap<>(EngineSnapshot.CounterType.class);
-    Arrays.stream(EngineSnapshot.TimeType.values()).forEach(t -> times.put(t, new AtomicDouble(0d)));
-    Arrays.stream(EngineSnapshot.CounterType.values()).forEach(t -> counters.put(t, new AtomicInteger(0)));
-    startingInstant = Instant.now();
+    lastNFCMessages =
+        new GridSpatialMap<>(configuration.nfcDistanceRange, configuration.nfcChannels, NFCMessage::channel);
+    newNFCMessages =
+        new GridSpatialMap<>(configuration.nfcDistanceRange, configuration.nfcChannels, NFCMessage::channel);
+    timeNanos = new long[EngineSnapshot.TimeType.values().length];
+    counters = new int[EngineSnapshot.CounterType.values().length];
+    actionProfiles = new ActionProfile[0];
+    startingNanoTime = System.nanoTime();
+    snapshotPolicy = SnapshotPolicy.FULL;
+    profilingLevel = ProfilingLevel.TICK_ONLY;
+    actMode = ActMode.SEQUENTIAL;
     registerActionSolvers();
   }
 
@@ -77,6 +99,22 @@ public abstract class AbstractEngine implements Engine, Profiled {
     O solve(A action, Agent agent) throws ActionException;
   }
 
+  private record ActionProfile(Class<?> actionClass, LongHistogram histogram) {
+    private Map<String, Number> values() {
+      // the full name, since simple names of actions from different packages may clash
+      String prefix = "action_" + actionClass.getName();
+      return Map.of(
+          prefix + "_count",
+          histogram.count(),
+          prefix + "_total_ns",
+          histogram.total(),
+          prefix + "_p50_ns",
+          histogram.percentile(0.5d),
+          prefix + "_p99_ns",
+          histogram.percentile(0.99d));
+    }
+  }
+
   public record Configuration(
       double attractionRange,
       double attractLinkRangeRatio,
@@ -87,11 +125,19 @@ public abstract class AbstractEngine implements Engine, Profiled {
 
   protected abstract Collection<Body> getBodies();
 
+  protected abstract void innerReset();
+
   protected abstract double innerTick();
 
+  protected Collection<Body> sleepingBodies() {
+    return List.of();
+  }
+
   protected Agent addAgent(AddAgent action, Agent agent) throws ActionException {
     if (action.agent() instanceof EmbodiedAgent embodiedAgent) {
       embodiedAgent.assemble(this);
+      embodiedAgent.invalidateGeometry();
+      embodiedAgent.bodyParts().forEach(b -> bodyAgents.put(b, embodiedAgent));
       agentPairs.add(new Pair<>(action.agent(), List.of()));
     } else {
       agentPairs.add(new Pair<>(action.agent(), List.of()));
@@ -99,6 +145,12 @@ public abstract class AbstractEngine implements Engine, Profiled {
     return action.agent();
   }
 
+  protected SensorBank addSensorBank(AddSensorBank action, Agent agent) {
+    sensorBankPairs.add(new Pair<>(agent, action.sensorBank()));
+    fillSensorBank(action.sensorBank(), agent);
+    return action.sensorBank();
+  }
+
   protected AttractAndLinkAnchor.Outcome attractAndLinkAnchor(AttractAndLinkAnchor action, Agent agent) {
     double d = PolyUtils.minAnchorDistance(action.source(), action.destination())
         * configuration.attractLinkRangeRatio;
@@ -161,32 +213,16 @@ public abstract class AbstractEngine implements Engine, Profiled {
   @SuppressWarnings("unchecked")
   @Override
   public <A extends Action<O>, O> ActionOutcome<A, O> perform(A action, Agent agent) {
-    Instant performStartingInstant = Instant.now();
-    counters.get(EngineSnapshot.CounterType.ACTION).incrementAndGet();
-    ActionSolver<A, O> actionSolver = (ActionSolver<A, O>) actionSolvers.get(action.getClass());
+    long performStartingNanoTime = profilingLevel.equals(ProfilingLevel.PER_ACTION) ? System.nanoTime() : 0;
+    increment(EngineSnapshot.CounterType.ACTION);
+    int actionClassId = ACTION_CLASS_IDS.get(action.getClass());
+    ActionSolver<A, O> actionSolver = (ActionSolver<A, O>) actionSolver(actionClassId, action.getClass());
     O o = null;
-    if (actionSolver == null) {
-      // try composite action
-      if (action instanceof SelfDescribedAction<?> selfDescribedAction) {
-        try {
-          o = (O) selfDescribedAction.perform(this, agent);
-        } catch (ActionException e) {
-          L.finer(String.format(
-              "Ignoring illegal action %s due to %s",
-              action.getClass().getSimpleName(), e));
-          counters.get(EngineSnapshot.CounterType.ILLEGAL_ACTION).incrementAndGet();
-        } catch (RuntimeException e) {
-          L.warning(String.format(
-              "Ignoring action %s throwing exception: %s",
-              action.getClass().getSimpleName(), e));
-          counters.get(EngineSnapshot.CounterType.ILLEGAL_ACTION).incrementAndGet();
-        }
-      } else {
-        // keep note as unsupported action
-        L.finer(String.format(
-            "Ignoring unsupported action: %s", action.getClass().getSimpleName()));
-        counters.get(EngineSnapshot.CounterType.UNSUPPORTED_ACTION).incrementAndGet();
-      }
+    if (actionSolver == UNSUPPORTED_ACTION_SOLVER) {
+      // keep note as unsupported action
+      L.finer(String.format(
+          "Ignoring unsupported action: %s", action.getClass().getSimpleName()));
+      increment(EngineSnapshot.CounterType.UNSUPPORTED_ACTION);
     } else {
       try {
         o = actionSolver.solve(action, agent);
@@ -194,28 +230,102 @@ public abstract class AbstractEngine implements Engine, Profiled {
         L.finer(String.format(
             "Ignoring illegal action %s due to %s",
             action.getClass().getSimpleName(), e));
-        counters.get(EngineSnapshot.CounterType.ILLEGAL_ACTION).incrementAndGet();
+        increment(EngineSnapshot.CounterType.ILLEGAL_ACTION);
       } catch (RuntimeException e) {
         L.warning(String.format(
             "Ignoring action %s throwing exception: %s",
             action.getClass().getSimpleName(), e));
-        counters.get(EngineSnapshot.CounterType.ILLEGAL_ACTION).incrementAndGet();
+        increment(EngineSnapshot.CounterType.ILLEGAL_ACTION);
       }
     }
     ActionOutcome<A, O> outcome = new ActionOutcome<>(agent, action, o == null ? Optional.empty() : Optional.of(o));
-    lastTickPerformedActions.add(outcome);
-    times.get(EngineSnapshot.TimeType.PERFORM)
-        .add(Duration.between(performStartingInstant, Instant.now()).toNanos() / 1000000000d);
+    if (!snapshotPolicy.equals(SnapshotPolicy.NONE)) {
+      lastTickPerformedActions.add(outcome);
+    }
+    if (profilingLevel.equals(ProfilingLevel.PER_ACTION)) {
+      long elapsed = System.nanoTime() - performStartingNanoTime;
+      timeNanos[EngineSnapshot.TimeType.PERFORM.ordinal()] =
+          timeNanos[EngineSnapshot.TimeType.PERFORM.ordinal()] + elapsed;
+      actionProfile(actionClassId, action.getClass()).histogram().add(elapsed);
+    }
     return outcome;
   }
 
+  private void fillSensorBank(SensorBank sensorBank, Agent agent) {
+    double[] rawValues = sensorBank.rawValues();
+    for (int i = 0; i < rawValues.length; i = i + 1) {
+      rawValues[i] = sense(sensorBank.senses().get(i), agent);
+    }
+    sensorBank.normalize();
+  }
+
+  @SuppressWarnings("unchecked")
+  private <S extends Sense<?>> double sense(S sense, Agent agent) {
+    // as perform(), but without wrapping the outcome; failed readings are 0, as missing outcomes of sense actions
+    ActionSolver<S, Double> actionSolver =
+        (ActionSolver<S, Double>) actionSolver(ACTION_CLASS_IDS.get(sense.getClass()), sense.getClass());
+    if (actionSolver == UNSUPPORTED_ACTION_SOLVER) {
+      increment(EngineSnapshot.CounterType.UNSUPPORTED_ACTION);
+      return 0d;
+    }
+    try {
+      Double value = actionSolver.solve(sense, agent);
+      return value == null ? 0d : value;
+    } catch (ActionException e) {
+      L.finer(String.format(
+          "Ignoring illegal sense %s due to %s", sense.getClass().getSimpleName(), e));
+      increment(EngineSnapshot.CounterType.ILLEGAL_ACTION);
+    } catch (RuntimeException e) {
+      L.warning(String.format(
+          "Ignoring sense %s throwing exception: %s", sense.getClass().getSimpleName(), e));
+      increment(EngineSnapshot.CounterType.ILLEGAL_ACTION);
+    }
+    return 0d;
+  }
+
+  private ActionProfile actionProfile(int id, Class<?> actionClass) {
+    if (id >= actionProfiles.length) {
+      actionProfiles = Arrays.copyOf(actionProfiles, Math.max(id + 1, actionProfiles.length * 2));
+    }
+    if (actionProfiles[id] == null) {
+      actionProfiles[id] = new ActionProfile(actionClass, new LongHistogram());
+    }
+    return actionProfiles[id];
+  }
+
+  private ActionSolver<?, ?> actionSolver(int id, Class<?> actionClass) {
+    if (id >= dispatchTable.length) {
+      dispatchTable = Arrays.copyOf(dispatchTable, Math.max(id + 1, dispatchTable.length * 2));
+    }
+    ActionSolver<?, ?> actionSolver = dispatchTable[id];
+    if (actionSolver == null) {
+      actionSolver = resolveActionSolver(actionClass);
+      dispatchTable[id] = actionSolver;
+    }
+    return actionSolver;
+  }
+
+  private ActionSolver<?, ?> resolveActionSolver(Class<?> actionClass) {
+    ActionSolver<?, ?> actionSolver = actionSolvers.get(actionClass);
+    if (actionSolver != null) {
+      return actionSolver;
+    }
+    if (SelfDescribedAction.class.isAssignableFrom(actionClass)) {
+      // composite action
+      return (ActionSolver<SelfDescribedAction<Object>, Object>) (action, agent) -> action.perform(this, agent);
+    }
+    return UNSUPPORTED_ACTION_SOLVER;
+  }
+
   protected final <A extends Action<O>, O> void registerActionSolver(
       Class<A> actionClass, ActionSolver<A, O> actionSolver) {
     actionSolvers.put(actionClass, actionSolver);
+    Arrays.fill(dispatchTable, null);
   }
 
   protected void registerActionSolvers() {
     registerActionSolver(AddAgent.class, this::addAgent);
+    registerActionSolver(AddSensorBank.class, this::addSensorBank);
     registerActionSolver(AttractAndLinkAnchor.class, this::attractAndLinkAnchor);
     registerActionSolver(AttractAndLinkClosestAnchorable.class, this::attractAndLinkClosestAnchorable);
     registerActionSolver(SenseSinusoidal.class, this::senseSinusoidal);
@@ -224,14 +334,11 @@ public abstract class AbstractEngine implements Engine, Profiled {
   }
 
   protected Double senseNFC(SenseNFC action, Agent agent) {
-    double sum =
-        lastNFCMessages
-            .get(action.body().poly().center().sum(action.displacement()), configuration.nfcDistanceRange)
-            .stream()
-            .filter(m -> m.channel() == action.channel()
-                && Math.abs(m.direction() - action.direction()) >= configuration.nfcAngleRange)
-            .mapToDouble(NFCMessage::value)
-            .sum();
+    double sum = lastNFCMessages.sum(
+        action.body().poly().center().sum(action.displacement()),
+        configuration.nfcDistanceRange,
+        action.channel(),
+        m -> Math.abs(m.direction() - action.direction()) >= configuration.nfcAngleRange ? m.value() : 0d);
     return action.range().clip(sum);
   }
 
@@ -239,6 +346,107 @@ public abstract class AbstractEngine implements Engine, Profiled {
     return Math.sin(2d * Math.PI * action.f() * t() + action.phi());
   }
 
+  private void countSleeping() {
+    // sleeping counters are not cumulative: they refer to the state after the last tick
+    Collection<Body> sleepingBodies = sleepingBodies();
+    int nOfSleepingAgents = 0;
+    if (!sleepingBodies.isEmpty()) {
+      for (Pair<Agent, List<ActionOutcome<?, ?>>> agentPair : agentPairs) {
+        if (agentPair.first() instanceof EmbodiedAgent embodiedAgent) {
+          List<Body> bodyParts = embodiedAgent.bodyParts();
+          if (!bodyParts.isEmpty() && sleepingBodies.containsAll(bodyParts)) {
+            nOfSleepingAgents = nOfSleepingAgents + 1;
+          }
+        }
+      }
+    }
+    counters[EngineSnapshot.CounterType.SLEEPING_BODY.ordinal()] = sleepingBodies.size();
+    counters[EngineSnapshot.CounterType.SLEEPING_AGENT.ordinal()] = nOfSleepingAgents;
+  }
+
+  private void increment(EngineSnapshot.CounterType counterType) {
+    counters[counterType.ordinal()] = counters[counterType.ordinal()] + 1;
+  }
+
+  protected void invalidateAgentGeometry(Body body) {
+    // between ticks, bodies move only when translated, rotated, or removed: the solvers of those actions invalidate
+    // the owning agent; bodies created after the agent was added are looked up among its body parts
+    EmbodiedAgent embodiedAgent = bodyAgents.computeIfAbsent(body, this::bodyAgent);
+    if (embodiedAgent != null) {
+      embodiedAgent.invalidateGeometry();
+    }
+  }
+
+  private EmbodiedAgent bodyAgent(Body body) {
+    for (Pair<Agent, List<ActionOutcome<?, ?>>> agentPair : agentPairs) {
+      if (agentPair.first() instanceof EmbodiedAgent embodiedAgent
+          && embodiedAgent.bodyParts().contains(body)) {
+        return embodiedAgent;
+      }
+    }
+    return null;
+  }
+
+  private void invalidateAgentGeometries() {
+    // agent geometries are cached by agents and valid until bodies move, i.e., until the next tick or moving action
+    for (Pair<Agent, List<ActionOutcome<?, ?>>> agentPair : agentPairs) {
+      if (agentPair.first() instanceof EmbodiedAgent embodiedAgent) {
+        embodiedAgent.invalidateGeometry();
+      }
+    }
+  }
+
+  @Override
+  public ActMode actMode() {
+    return actMode;
+  }
+
+  @Override
+  public void setActMode(ActMode actMode) {
+    this.actMode = actMode;
+  }
+
+  @Override
+  public ProfilingLevel profilingLevel() {
+    return profilingLevel;
+  }
+
+  @Override
+  public void setProfilingLevel(ProfilingLevel profilingLevel) {
+    this.profilingLevel = profilingLevel;
+  }
+
+  @Override
+  public void reset() {
+    bodies.clear();
+    agentPairs.clear();
+    sensorBankPairs.clear();
+    bodyAgents.clear();
+    t.set(0d);
+    lastTickPerformedActions.clear();
+    lastNFCMessages.clear();
+    newNFCMessages.clear();
+    Arrays.fill(timeNanos, 0);
+    Arrays.fill(counters, 0);
+    for (ActionProfile actionProfile : actionProfiles) {
+      if (actionProfile != null) {
+        actionProfile.histogram().clear();
+      }
+    }
+    startingNanoTime = System.nanoTime();
+    innerReset();
+  }
+
+  @Override
+  public void setSnapshotPolicy(SnapshotPolicy snapshotPolicy) {
+    this.snapshotPolicy = snapshotPolicy;
+  }
+
+  @Override
+  public SnapshotPolicy snapshotPolicy() {
+    return snapshotPolicy;
+  }
+
   @Override
   public double t() {
     return t.get();
@@ -246,55 +454,140 @@ public abstract class AbstractEngine implements Engine, Profiled {
 
   @Override
   public Snapshot tick() {
-    Instant tickStartingInstant = Instant.now();
-    newNFCMessages = new HashSpatialMap<>(configuration.nfcDistanceRange);
-    counters.get(EngineSnapshot.CounterType.TICK).incrementAndGet();
+    boolean timing = !profilingLevel.equals(ProfilingLevel.OFF);
+    long tickStartingNanoTime = timing ? System.nanoTime() : 0;
+    increment(EngineSnapshot.CounterType.TICK);
+    // in parallel mode, agents first act concurrently, since they only read their previous outcomes, and then their
+    // actions are performed sequentially in agent order; agents added while performing act sequentially
+    List<List<? extends Action<?>>> agentsActions = List.of();
+    if (actMode.equals(ActMode.PARALLEL) && agentPairs.size() > 1) {
+      double actT = t.get();
+      agentsActions = agentPairs.stream()
+          .parallel()
+          .<List<? extends Action<?>>>map(p -> p.first().act(actT, p.second()))
+          .toList();
+    }
     for (int i = 0; i < agentPairs.size(); i++) {
+      List<? extends Action<?>> actions = i < agentsActions.size()
+          ? agentsActions.get(i)
+          : agentPairs.get(i).first().act(t.get(), agentPairs.get(i).second());
       List<ActionOutcome<?, ?>> outcomes = new ArrayList<>();
-      for (Action<?> action :
-          agentPairs.get(i).first().act(t.get(), agentPairs.get(i).second())) {
+      for (Action<?> action : actions) {
         outcomes.add(perform(action, agentPairs.get(i).first()));
       }
       Pair<Agent, List<ActionOutcome<?, ?>>> pair =
           new Pair<>(agentPairs.get(i).first(), outcomes);
       agentPairs.set(i, pair);
     }
+    // the storage of the messages of the previous tick is reused for the messages of the next tick
+    GridSpatialMap<NFCMessage> nfcMessages = lastNFCMessages;
     lastNFCMessages = newNFCMessages;
-    Instant innerTickStartingInstant = Instant.now();
+    newNFCMessages = nfcMessages;
+    newNFCMessages.clear();
+    long innerTickStartingNanoTime = timing ? System.nanoTime() : 0;
     double newT = innerTick();
     t.set(newT);
-    times.get(EngineSnapshot.TimeType.INNER_TICK)
-        .add(Duration.between(innerTickStartingInstant, Instant.now()).toNanos() / 1000000000d);
-    times.get(EngineSnapshot.TimeType.TICK)
-        .add(Duration.between(tickStartingInstant, Instant.now()).toNanos() / 1000000000d);
-    times.get(EngineSnapshot.TimeType.WALL)
-        .set(Duration.between(startingInstant, Instant.now()).toMillis() / 1000d);
-    times.get(EngineSnapshot.TimeType.ENVIRONMENT).set(t.get());
+    invalidateAgentGeometries();
+    countSleeping();
+    for (Pair<Agent, SensorBank> sensorBankPair : sensorBankPairs) {
+      fillSensorBank(sensorBankPair.second(), sensorBankPair.first());
+    }
+    if (timing) {
+      long tickEndingNanoTime = System.nanoTime();
+      timeNanos[EngineSnapshot.TimeType.INNER_TICK.ordinal()] =
+          timeNanos[EngineSnapshot.TimeType.INNER_TICK.ordinal()]
+              + tickEndingNanoTime
+              - innerTickStartingNanoTime;
+      timeNanos[EngineSnapshot.TimeType.TICK.ordinal()] =
+          timeNanos[EngineSnapshot.TimeType.TICK.ordinal()] + tickEndingNanoTime - tickStartingNanoTime;
+    }
+    return switch (snapshotPolicy) {
+      case NONE -> new EngineSnapshot(t.get(), List.of(), List.of(), List.of(), List.of(), Map.of(), Map.of());
+      case LAZY -> lazySnapshot();
+      case FULL -> fullSnapshot();
+    };
+  }
+
+  private EngineSnapshot fullSnapshot() {
     EngineSnapshot snapshot = new EngineSnapshot(
         t.get(),
         List.copyOf(getBodies()),
         agentPairs.stream().map(Pair::first).toList(),
         List.copyOf(lastTickPerformedActions),
         lastNFCMessages.all(),
-        times.entrySet().stream()
-            .map(e -> Map.entry(e.getKey(), e.getValue().get()))
-            .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue)),
-        counters.entrySet().stream()
-            .map(e -> Map.entry(e.getKey(), e.getValue().get()))
-            .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue)));
+        times(),
+        counters());
     lastTickPerformedActions.clear();
     return snapshot;
   }
 
+  private EngineSnapshot lazySnapshot() {
+    // bodies, agents, and nfc messages are materialized on first access, hence they should be read before the next
+    // tick
+    List<ActionOutcome<?, ?>> actionOutcomes = Collections.unmodifiableList(lastTickPerformedActions);
+    lastTickPerformedActions = new ArrayList<>();
+    SpatialMap<NFCMessage> nfcMessages = lastNFCMessages;
+    EngineSnapshot.TimeType[] timeTypes = EngineSnapshot.TimeType.values();
+    EngineSnapshot.CounterType[] counterTypes = EngineSnapshot.CounterType.values();
+    double[] timeValues = new double[timeTypes.length];
+    for (int i = 0; i < timeTypes.length; i = i + 1) {
+      timeValues[i] = time(timeTypes[i]);
+    }
+    int[] counterValues = Arrays.copyOf(counters, counters.length);
+    return new EngineSnapshot(
+        t.get(),
+        new LazyCollection<>(() -> List.copyOf(getBodies())),
+        new LazyCollection<>(() -> agentPairs.stream().map(Pair::first).toList()),
+        actionOutcomes,
+        new LazyCollection<>(nfcMessages::all),
+        new LazyMap<>(() -> {
+          Map<EngineSnapshot.TimeType, Double> map = new EnumMap<>(EngineSnapshot.TimeType.class);
+          for (int i = 0; i < timeTypes.length; i = i + 1) {
+            map.put(timeTypes[i], timeValues[i]);
+          }
+          return map;
+        }),
+        new LazyMap<>(() -> {
+          Map<EngineSnapshot.CounterType, Integer> map = new EnumMap<>(EngineSnapshot.CounterType.class);
+          for (int i = 0; i < counterTypes.length; i = i + 1) {
+            map.put(counterTypes[i], counterValues[i]);
+          }
+          return map;
+        }));
+  }
+
+  private double time(EngineSnapshot.TimeType timeType) {
+    return switch (timeType) {
+      case ENVIRONMENT -> t.get();
+      case WALL -> (System.nanoTime() - startingNanoTime) / 1000000000d;
+      default -> timeNanos[timeType.ordinal()] / 1000000000d;
+    };
+  }
+
+  private Map<EngineSnapshot.TimeType, Double> times() {
+    Map<EngineSnapshot.TimeType, Double> map = new EnumMap<>(EngineSnapshot.TimeType.class);
+    for (EngineSnapshot.TimeType timeType : EngineSnapshot.TimeType.values()) {
+      map.put(timeType, time(timeType));
+    }
+    return map;
+  }
+
+  private Map<EngineSnapshot.CounterType, Integer> counters() {
+    Map<EngineSnapshot.CounterType, Integer> map = new EnumMap<>(EngineSnapshot.CounterType.class);
+    for (EngineSnapshot.CounterType counterType : EngineSnapshot.CounterType.values()) {
+      map.put(counterType, counters[counterType.ordinal()]);
+    }
+    return map;
+  }
+
   @Override
   public Map<String, Number> values() {
     return Stream.of(
-            times.entrySet().stream()
-                .map(e -> Map.entry(
-                    "time_" + e.getKey(), e.getValue().get())),
-            counters.entrySet().stream()
-                .map(e -> Map.entry(
-                    "counter_" + e.getKey(), e.getValue().get())))
+            times().entrySet().stream().map(e -> Map.entry("time_" + e.getKey(), e.getValue())),
+            counters().entrySet().stream().map(e -> Map.entry("counter_" + e.getKey(), e.getValue())),
+            Arrays.stream(actionProfiles)
+                .filter(Objects::nonNull)
+                .flatMap(ap -> ap.values().entrySet().stream()))
         .flatMap(m -> m)
         .map(e -> Map.entry(e.getKey().toLowerCase(), e.getValue()))
         .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
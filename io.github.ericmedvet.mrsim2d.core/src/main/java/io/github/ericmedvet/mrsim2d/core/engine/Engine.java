@@ -22,4 +22,36 @@ package io.github.ericmedvet.mrsim2d.core.engine;
 
 import io.github.ericmedvet.mrsim2d.core.Environment;
 
-public interface Engine extends Environment {}
+public interface Engine extends Environment {
+
+  enum ActMode {
+    SEQUENTIAL,
+    PARALLEL
+  }
+
+  enum ProfilingLevel {
+    OFF,
+    TICK_ONLY,
+    PER_ACTION
+  }
+
+  enum SnapshotPolicy {
+    NONE,
+    LAZY,
+    FULL
+  }
+
+  void setActMode(ActMode actMode);
+
+  void setProfilingLevel(ProfilingLevel profilingLevel);
+
+  void setSnapshotPolicy(SnapshotPolicy snapshotPolicy);
+
+  ActMode actMode();
+
+  ProfilingLevel profilingLevel();
+
+  void reset();
+
+  SnapshotPolicy snapshotPolicy();
+}
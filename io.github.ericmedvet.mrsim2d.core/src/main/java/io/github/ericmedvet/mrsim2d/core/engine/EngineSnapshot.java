@@ -41,7 +41,9 @@ public record EngineSnapshot(
     TICK,
     ACTION,
     ILLEGAL_ACTION,
-    UNSUPPORTED_ACTION
+    UNSUPPORTED_ACTION,
+    SLEEPING_BODY,
+    SLEEPING_AGENT
   }
 
   public enum TimeType {
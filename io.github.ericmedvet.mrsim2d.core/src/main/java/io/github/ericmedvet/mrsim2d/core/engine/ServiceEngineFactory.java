@@ -0,0 +1,46 @@
+/*-
+ * ========================LICENSE_START=================================
+ * mrsim2d-core
+ * %%
+ * Copyright (C) 2020 - 2024 Eric Medvet
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package io.github.ericmedvet.mrsim2d.core.engine;
+
+import java.util.ServiceLoader;
+
+class ServiceEngineFactory implements EngineFactory {
+
+  // built on first use, when the class is initialized: hence, the lookup is done once and is thread-safe
+  static final ServiceEngineFactory INSTANCE = new ServiceEngineFactory();
+
+  private final ServiceLoader.Provider<Engine> provider;
+
+  private ServiceEngineFactory() {
+    provider = ServiceLoader.load(Engine.class).stream()
+        .findFirst()
+        .orElseThrow(() -> new IllegalStateException("No engine provider found"));
+  }
+
+  @Override
+  public Engine get() {
+    return provider.get();
+  }
+
+  @Override
+  public String toString() {
+    return "ServiceEngineFactory{" + "provider=" + provider.type().getName() + '}';
+  }
+}
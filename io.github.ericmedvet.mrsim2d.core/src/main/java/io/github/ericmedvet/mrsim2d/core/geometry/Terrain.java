@@ -21,27 +21,18 @@
 package io.github.ericmedvet.mrsim2d.core.geometry;
 
 import io.github.ericmedvet.jnb.datastructure.DoubleRange;
-import io.github.ericmedvet.mrsim2d.core.util.PolyUtils;
-import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.List;
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
 
 public record Terrain(Poly poly, DoubleRange withinBordersXRange) {
 
+  // polies are equal only if they share the vertexes array, and indexes are dropped with their poly
+  private static final Map<Poly, TerrainIndex> INDEXES = Collections.synchronizedMap(new WeakHashMap<>());
+
   public double maxHeightAt(DoubleRange xRange) {
-    List<Double> xs = new ArrayList<>(Arrays.stream(poly().vertexes())
-        .filter(v -> v.x() >= xRange.min() && v.x() <= xRange.max())
-        .map(Point::x)
-        .toList());
-    xs.add(xRange.min());
-    xs.add(xRange.max());
-    return xs.stream()
-        .distinct()
-        .mapToDouble(x -> PolyUtils.maxYAtX(poly, x))
-        .filter(d -> !Double.isNaN(d))
-        .max()
-        .orElseThrow(() -> new IllegalArgumentException(
-            "Cannot find a terrain max y in range %.1f, %.1f.".formatted(xRange.min(), xRange.max())));
+    return INDEXES.computeIfAbsent(poly, TerrainIndex::new).maxHeightAt(xRange);
   }
 
   public static Terrain fromPath(Path partialPath, double terrainH, double borderW, double borderH) {
@@ -0,0 +1,109 @@
+/*-
+ * ========================LICENSE_START=================================
+ * mrsim2d-core
+ * %%
+ * Copyright (C) 2020 - 2024 Eric Medvet
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+package io.github.ericmedvet.mrsim2d.core.geometry;
+
+import io.github.ericmedvet.jnb.datastructure.DoubleRange;
+import java.util.Arrays;
+
+public class TerrainIndex {
+
+  private final double[] xs;
+  private final double[] maxYs;
+  private final Segment[] topSides;
+
+  public TerrainIndex(Poly poly) {
+    // breakpoints are the distinct vertex xs: between two consecutive ones, the top side does not change
+    xs = Arrays.stream(poly.vertexes())
+        .mapToDouble(Point::x)
+        .sorted()
+        .distinct()
+        .toArray();
+    maxYs = new double[xs.length];
+    Arrays.fill(maxYs, Double.NaN);
+    topSides = new Segment[Math.max(xs.length - 1, 0)];
+    double[] topMidYs = new double[topSides.length];
+    Arrays.fill(topMidYs, Double.NEGATIVE_INFINITY);
+    for (Segment side : poly.sides()) {
+      double minX = Math.min(side.p1().x(), side.p2().x());
+      double maxX = Math.max(side.p1().x(), side.p2().x());
+      if (minX == maxX) {
+        // vertical sides never give a y
+        continue;
+      }
+      for (int i = Arrays.binarySearch(xs, minX); i < xs.length && xs[i] <= maxX; i = i + 1) {
+        double y = yAtX(side, xs[i]);
+        if (!Double.isNaN(y) && (Double.isNaN(maxYs[i]) || y > maxYs[i])) {
+          maxYs[i] = y;
+        }
+        if (xs[i] < maxX) {
+          double midY = yAtX(side, (xs[i] + xs[i + 1]) / 2d);
+          if (midY > topMidYs[i]) {
+            topMidYs[i] = midY;
+            topSides[i] = side;
+          }
+        }
+      }
+    }
+  }
+
+  public TerrainIndex(Terrain terrain) {
+    this(terrain.poly());
+  }
+
+  private static double nanMax(double y1, double y2) {
+    if (Double.isNaN(y1)) {
+      return y2;
+    }
+    if (Double.isNaN(y2)) {
+      return y1;
+    }
+    return Math.max(y1, y2);
+  }
+
+  private static double yAtX(Segment s, double x) {
+    return s.p1().y() + (s.p2().y() - s.p1().y()) * (x - s.p1().x()) / (s.p2().x() - s.p1().x());
+  }
+
+  public double maxHeightAt(DoubleRange xRange) {
+    double maxY = nanMax(maxYAtX(xRange.min()), maxYAtX(xRange.max()));
+    int from = Arrays.binarySearch(xs, xRange.min());
+    for (int i = from >= 0 ? from : (-from - 1); i < xs.length && xs[i] <= xRange.max(); i = i + 1) {
+      maxY = nanMax(maxY, maxYs[i]);
+    }
+    if (Double.isNaN(maxY)) {
+      throw new IllegalArgumentException(
+          "Cannot find a terrain max y in range %.1f, %.1f.".formatted(xRange.min(), xRange.max()));
+    }
+    return maxY;
+  }
+
+  public double maxYAtX(double x) {
+    int i = Arrays.binarySearch(xs, x);
+    if (i >= 0) {
+      return maxYs[i];
+    }
+    int interval = -i - 2;
+    if (interval < 0 || interval >= topSides.length || topSides[interval] == null) {
+      return Double.NaN;
+    }
+    return yAtX(topSides[interval], x);
+  }
+}
@@ -21,21 +21,55 @@ package io.github.ericmedvet.mrsim2d.core.tasks;
 
 import io.github.ericmedvet.jnb.datastructure.DoubleRange;
 import io.github.ericmedvet.jsdynsym.control.Simulation;
-import io.github.ericmedvet.mrsim2d.core.geometry.Point;
-import io.github.ericmedvet.mrsim2d.core.geometry.Poly;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.DoubleStream;
+import java.util.stream.IntStream;
 
 public class AgentsOutcome<O extends AgentsObservation> implements Simulation.Outcome<O> {
 
   private static final int N_OF_CACHED_SUB_OUTCOMES = 3;
   protected final SortedMap<Double, O> observations;
+  private final Recorder<O> recorder;
+  private final int from;
+  private final int to;
   private final Map<Key, Double> metricMap;
   private final Map<DoubleRange, AgentsOutcome<O>> subOutcomes;
 
   public AgentsOutcome(SortedMap<Double, O> observations) {
+    this(observations, List.of());
+  }
+
+  public AgentsOutcome(Recorder<O> recorder) {
+    this(recorder, recorder.observations, 0, recorder.n);
+  }
+
+  protected AgentsOutcome(SortedMap<Double, O> observations, List<ToDoubleFunction<? super O>> extraMetrics) {
+    this(Recorder.of(observations, extraMetrics));
+  }
+
+  protected AgentsOutcome(AgentsOutcome<O> outcome, DoubleRange tRange) {
+    this(
+        outcome.recorder,
+        outcome.recorder.observations(
+            Math.max(outcome.from, outcome.recorder.index(tRange.min())),
+            Math.min(outcome.to, outcome.recorder.index(tRange.max()))),
+        Math.max(outcome.from, outcome.recorder.index(tRange.min())),
+        Math.min(outcome.to, outcome.recorder.index(tRange.max())));
+  }
+
+  private AgentsOutcome(Recorder<O> recorder, SortedMap<Double, O> observations, int from, int to) {
+    this.recorder = recorder;
     this.observations = observations;
+    this.from = from;
+    this.to = Math.max(from, to);
     metricMap = new HashMap<>();
     subOutcomes = new HashMap<>();
   }
@@ -68,6 +102,184 @@ public class AgentsOutcome<O extends AgentsObservation> implements Simulation.Ou
 
   private record Key(Metric metric, Aggregate aggregate, Subject subject) {}
 
+  public static class Recorder<O extends AgentsObservation> {
+
+    private static final Metric[] METRICS = Metric.values();
+    private static final Subject[] SUBJECTS = Subject.values();
+    private static final int N_OF_BASE_METRICS = METRICS.length * SUBJECTS.length;
+    private static final int INITIAL_CAPACITY = 64;
+    private static final double TIME_EPSILON = 1e-6;
+
+    private final boolean keepObservations;
+    private final double observationInterval;
+    private final List<ToDoubleFunction<? super O>> extraMetrics;
+    private final SortedMap<Double, O> observations;
+    private final long startingNanoTime;
+    private double[] ts;
+    private double[][] values;
+    private int n;
+    private int nOfTicks;
+    private boolean truncated;
+
+    public Recorder(
+        boolean keepObservations, double observationInterval, List<ToDoubleFunction<? super O>> extraMetrics) {
+      this.keepObservations = keepObservations;
+      this.observationInterval = observationInterval;
+      this.extraMetrics = extraMetrics;
+      observations = new TreeMap<>();
+      startingNanoTime = System.nanoTime();
+      ts = new double[INITIAL_CAPACITY];
+      values = new double[N_OF_BASE_METRICS + extraMetrics.size()][INITIAL_CAPACITY];
+    }
+
+    public Recorder(boolean keepObservations, double observationInterval) {
+      this(keepObservations, observationInterval, List.of());
+    }
+
+    public Recorder(boolean keepObservations) {
+      this(keepObservations, 0d);
+    }
+
+    private static <O extends AgentsObservation> Recorder<O> of(
+        SortedMap<Double, O> observations, List<ToDoubleFunction<? super O>> extraMetrics) {
+      Recorder<O> recorder = new Recorder<>(true, 0d, extraMetrics);
+      observations.forEach(recorder::add);
+      return recorder;
+    }
+
+    private static int index(Metric metric, Subject subject) {
+      return metric.ordinal() * SUBJECTS.length + subject.ordinal();
+    }
+
+    public void add(double t, O observation) {
+      if (n == ts.length) {
+        ts = Arrays.copyOf(ts, 2 * n);
+        for (int i = 0; i < values.length; i = i + 1) {
+          values[i] = Arrays.copyOf(values[i], 2 * n);
+        }
+      }
+      ts[n] = t;
+      for (Metric metric : METRICS) {
+        for (Subject subject : SUBJECTS) {
+          values[index(metric, subject)][n] = value(metric, subject, observation);
+        }
+      }
+      for (int i = 0; i < extraMetrics.size(); i = i + 1) {
+        values[N_OF_BASE_METRICS + i][n] = extraMetrics.get(i).applyAsDouble(observation);
+      }
+      if (keepObservations) {
+        observations.put(t, observation);
+      }
+      n = n + 1;
+    }
+
+    // to be called after each tick: the observation is built only when it is due or the stop condition is checked
+    public boolean recordTick(
+        double t,
+        boolean last,
+        Supplier<? extends O> observationSupplier,
+        StopCondition stopCondition,
+        int stopCheckInterval) {
+      nOfTicks = nOfTicks + 1;
+      boolean toBeChecked =
+          stopCondition != StopCondition.NEVER && stopCheckInterval > 0 && nOfTicks % stopCheckInterval == 0;
+      boolean toBeRecorded = last || isDue(t);
+      if (!toBeRecorded && !toBeChecked) {
+        return false;
+      }
+      O observation = observationSupplier.get();
+      if (toBeRecorded) {
+        add(t, observation);
+      }
+      return toBeChecked && stopIf(t, observation, stopCondition);
+    }
+
+    private boolean stopIf(double t, O observation, StopCondition stopCondition) {
+      if (n == 0) {
+        return false;
+      }
+      truncated = stopCondition.shouldStop(new StopCondition.Status(
+          t, (System.nanoTime() - startingNanoTime) / 1e9, observation, new AgentsOutcome<>(this)));
+      // the observation at the stop is the last one, even if not due
+      if (truncated && ts[n - 1] < t) {
+        add(t, observation);
+      }
+      return truncated;
+    }
+
+    private boolean isDue(double t) {
+      return n == 0 || t >= ts[n - 1] + observationInterval - TIME_EPSILON;
+    }
+
+    private int index(double t) {
+      int low = 0;
+      int high = n;
+      while (low < high) {
+        int mid = (low + high) >>> 1;
+        if (ts[mid] < t) {
+          low = mid + 1;
+        } else {
+          high = mid;
+        }
+      }
+      return low;
+    }
+
+    private SortedMap<Double, O> observations(int from, int to) {
+      if (from >= to) {
+        return new TreeMap<>();
+      }
+      return to < n ? observations.subMap(ts[from], ts[to]) : observations.tailMap(ts[from]);
+    }
+  }
+
+  private static double value(Metric metric, Subject subject, AgentsObservation observation) {
+    if (observation.getAgents().isEmpty()) {
+      return Double.NaN;
+    }
+    return switch (metric) {
+      case X -> subject.equals(Subject.FIRST)
+          ? observation.getFirstAgentCenter().x()
+          : observation.getAllBoundingBox().center().x();
+      case Y -> subject.equals(Subject.FIRST)
+          ? observation.getFirstAgentCenter().y()
+          : observation.getAllBoundingBox().center().y();
+      case TERRAIN_H -> {
+        if (subject.equals(Subject.FIRST)) {
+          yield observation.getFirstAgentCenter().y()
+              - observation.getAgents().getFirst().terrainHeight();
+        } else {
+          yield IntStream.range(0, observation.getAgents().size())
+              .mapToDouble(i -> observation.getCenters().get(i).y()
+                  - observation.getAgents().get(i).terrainHeight())
+              .average()
+              .orElse(0d);
+        }
+      }
+      case BB_AREA -> subject.equals(Subject.FIRST)
+          ? observation.getFirstAgentBoundingBox().area()
+          : observation.getAllBoundingBox().area();
+      case BB_W -> subject.equals(Subject.FIRST)
+          ? observation.getFirstAgentBoundingBox().width()
+          : observation.getAllBoundingBox().width();
+      case BB_H -> subject.equals(Subject.FIRST)
+          ? observation.getFirstAgentBoundingBox().height()
+          : observation.getAllBoundingBox().height();
+      case BB_MIN_Y -> subject.equals(Subject.FIRST)
+          ? observation.getFirstAgentBoundingBox().min().y()
+          : observation.getAllBoundingBox().min().y();
+      case BB_MAX_Y -> subject.equals(Subject.FIRST)
+          ? observation.getFirstAgentBoundingBox().max().y()
+          : observation.getAllBoundingBox().max().y();
+      case BB_MIN_X -> subject.equals(Subject.FIRST)
+          ? observation.getFirstAgentBoundingBox().min().x()
+          : observation.getAllBoundingBox().min().x();
+      case BB_MAX_X -> subject.equals(Subject.FIRST)
+          ? observation.getFirstAgentBoundingBox().max().x()
+          : observation.getAllBoundingBox().max().x();
+    };
+  }
+
   public double allAgentsAverageHeight() {
     return get(Aggregate.AVERAGE, Metric.BB_H, Subject.ALL);
   }
@@ -117,7 +329,8 @@ public class AgentsOutcome<O extends AgentsObservation> implements Simulation.Ou
   }
 
   public double duration() {
-    return observations.lastKey() - observations.firstKey();
+    checkNotEmpty();
+    return recorder.ts[to - 1] - recorder.ts[from];
   }
 
   public double firstAgentAverageArea() {
@@ -136,6 +349,11 @@ public class AgentsOutcome<O extends AgentsObservation> implements Simulation.Ou
     return get(Aggregate.AVERAGE, Metric.BB_MIN_Y, Subject.FIRST);
   }
 
+  public double firstAgentInitialTerrainHeight() {
+    return get(Aggregate.INITIAL, Metric.Y, Subject.FIRST)
+        - get(Aggregate.INITIAL, Metric.TERRAIN_H, Subject.FIRST);
+  }
+
   public double firstAgentMaxY() {
     return get(Aggregate.MAX, Metric.Y, Subject.FIRST);
   }
@@ -156,80 +374,49 @@ public class AgentsOutcome<O extends AgentsObservation> implements Simulation.Ou
     return get(Aggregate.MAX, Metric.BB_MIN_Y, Subject.FIRST) / get(Aggregate.AVERAGE, Metric.BB_H, Subject.FIRST);
   }
 
+  private void checkNotEmpty() {
+    if (from >= to) {
+      throw new NoSuchElementException("No observations");
+    }
+  }
+
+  protected AgentsOutcome<O> createSubOutcome(DoubleRange tRange) {
+    return new AgentsOutcome<>(this, tRange);
+  }
+
+  protected DoubleStream extraMetric(int index) {
+    return Arrays.stream(recorder.values[Recorder.N_OF_BASE_METRICS + index], from, to);
+  }
+
   private double get(Aggregate aggregate, Metric metric, Subject subject) {
     Double value = metricMap.get(new Key(metric, aggregate, subject));
     if (value == null) {
+      double[] values = recorder.values[Recorder.index(metric, subject)];
       value = switch (aggregate) {
-        case FINAL -> get(metric, subject, observations.get(observations.lastKey()));
-        case INITIAL -> get(metric, subject, observations.get(observations.firstKey()));
-        case AVERAGE -> observations.values().stream()
-            .mapToDouble(o -> get(metric, subject, o))
-            .average()
-            .orElse(0d);
-        case MIN -> observations.values().stream()
-            .mapToDouble(o -> get(metric, subject, o))
-            .min()
-            .orElse(0d);
-        case MAX -> observations.values().stream()
-            .mapToDouble(o -> get(metric, subject, o))
-            .max()
-            .orElse(0d);};
+        case FINAL -> {
+          checkNotEmpty();
+          yield values[to - 1];
+        }
+        case INITIAL -> {
+          checkNotEmpty();
+          yield values[from];
+        }
+        case AVERAGE -> Arrays.stream(values, from, to).average().orElse(0d);
+        case MIN -> Arrays.stream(values, from, to).min().orElse(0d);
+        case MAX -> Arrays.stream(values, from, to).max().orElse(0d);};
       metricMap.put(new Key(metric, aggregate, subject), value);
     }
     return value;
   }
 
-  private double get(Metric metric, Subject subject, AgentsObservation observation) {
-    return switch (metric) {
-      case X -> subject.equals(Subject.FIRST)
-          ? observation.getFirstAgentCenter().x()
-          : observation.getAllBoundingBox().center().x();
-      case Y -> subject.equals(Subject.FIRST)
-          ? observation.getFirstAgentCenter().y()
-          : observation.getAllBoundingBox().center().y();
-      case TERRAIN_H -> {
-        if (subject.equals(Subject.FIRST)) {
-          yield observation.getFirstAgentCenter().y()
-              - observation.getAgents().getFirst().terrainHeight();
-        } else {
-          yield observation.getAgents().stream()
-              .mapToDouble(a -> Point.average(a.polies().stream()
-                          .map(Poly::center)
-                          .toArray(Point[]::new))
-                      .y()
-                  - a.terrainHeight())
-              .average()
-              .orElse(0d);
-        }
-      }
-      case BB_AREA -> subject.equals(Subject.FIRST)
-          ? observation.getFirstAgentBoundingBox().area()
-          : observation.getAllBoundingBox().area();
-      case BB_W -> subject.equals(Subject.FIRST)
-          ? observation.getFirstAgentBoundingBox().width()
-          : observation.getAllBoundingBox().width();
-      case BB_H -> subject.equals(Subject.FIRST)
-          ? observation.getFirstAgentBoundingBox().height()
-          : observation.getAllBoundingBox().height();
-      case BB_MIN_Y -> subject.equals(Subject.FIRST)
-          ? observation.getFirstAgentBoundingBox().min().y()
-          : observation.getAllBoundingBox().min().y();
-      case BB_MAX_Y -> subject.equals(Subject.FIRST)
-          ? observation.getFirstAgentBoundingBox().max().y()
-          : observation.getAllBoundingBox().max().y();
-      case BB_MIN_X -> subject.equals(Subject.FIRST)
-          ? observation.getFirstAgentBoundingBox().min().x()
-          : observation.getAllBoundingBox().min().x();
-      case BB_MAX_X -> subject.equals(Subject.FIRST)
-          ? observation.getFirstAgentBoundingBox().max().x()
-          : observation.getAllBoundingBox().max().x();
-    };
+  public boolean isTruncated() {
+    return recorder.truncated;
   }
 
   public AgentsOutcome<O> subOutcome(DoubleRange tRange) {
     AgentsOutcome<O> subOutcome = subOutcomes.get(tRange);
     if (subOutcome == null) {
-      subOutcome = new AgentsOutcome<>(observations.subMap(tRange.min(), tRange.max()));
+      subOutcome = createSubOutcome(tRange);
       if (subOutcomes.size() >= N_OF_CACHED_SUB_OUTCOMES) {
         // remove one
         subOutcomes.remove(subOutcomes.keySet().iterator().next());
@@ -241,7 +428,8 @@ public class AgentsOutcome<O extends AgentsObservation> implements Simulation.Ou
 
   @Override
   public String toString() {
-    return "Outcome[%.1f->%.1f]".formatted(observations.firstKey(), observations.lastKey());
+    checkNotEmpty();
+    return "Outcome[%.1f->%.1f]".formatted(recorder.ts[from], recorder.ts[to - 1]);
   }
 
   @Override
@@ -0,0 +1,60 @@
+/*-
+ * ========================LICENSE_START=================================
+ * mrsim2d-core
+ * %%
+ * Copyright (C) 2020 - 2024 Eric Medvet
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package io.github.ericmedvet.mrsim2d.core.tasks;
+
+import io.github.ericmedvet.jnb.datastructure.DoubleRange;
+import java.util.List;
+
+@FunctionalInterface
+public interface StopCondition {
+
+  StopCondition NEVER = status -> false;
+
+  record Status(double t, double elapsedSeconds, AgentsObservation observation, AgentsOutcome<?> outcome) {}
+
+  boolean shouldStop(Status status);
+
+  static StopCondition any(List<StopCondition> stopConditions) {
+    // keeps tasks able to skip the check altogether
+    if (stopConditions.stream().allMatch(c -> c == NEVER)) {
+      return NEVER;
+    }
+    return status -> stopConditions.stream().anyMatch(c -> c.shouldStop(status));
+  }
+
+  static StopCondition belowTerrain(double margin) {
+    // compares the top of the first agent with the terrain height below its current position
+    return status -> !status.observation().getAgents().isEmpty()
+        && status.observation().getFirstAgentBoundingBox().max().y()
+            < status.observation().getAgents().getFirst().terrainHeight() - margin;
+  }
+
+  static StopCondition noXProgress(double timeWindow, double minDistance) {
+    return status -> status.outcome().duration() >= timeWindow
+        && Math.abs(status.outcome()
+                .subOutcome(new DoubleRange(status.t() - timeWindow, Double.POSITIVE_INFINITY))
+                .firstAgentXDistance())
+            < minDistance;
+  }
+
+  static StopCondition wallClockBudget(double seconds) {
+    return status -> status.elapsedSeconds() > seconds;
+  }
+}
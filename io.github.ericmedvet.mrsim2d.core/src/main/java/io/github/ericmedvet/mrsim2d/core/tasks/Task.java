@@ -23,7 +23,7 @@ package io.github.ericmedvet.mrsim2d.core.tasks;
 import io.github.ericmedvet.jsdynsym.control.Simulation;
 import io.github.ericmedvet.mrsim2d.core.Snapshot;
 import io.github.ericmedvet.mrsim2d.core.engine.Engine;
-import java.util.ServiceLoader;
+import io.github.ericmedvet.mrsim2d.core.engine.EngineFactory;
 import java.util.function.Consumer;
 
 public interface Task<A, S extends AgentsObservation, O extends AgentsOutcome<S>> extends Simulation<A, S, O> {
@@ -36,6 +36,8 @@ public interface Task<A, S extends AgentsObservation, O extends AgentsOutcome<S>
 
   @Override
   default O simulate(A a) {
-    return run(a, ServiceLoader.load(Engine.class).findFirst().orElseThrow());
+    Engine engine = EngineFactory.service().get();
+    engine.setSnapshotPolicy(Engine.SnapshotPolicy.NONE);
+    return run(a, engine);
   }
 }
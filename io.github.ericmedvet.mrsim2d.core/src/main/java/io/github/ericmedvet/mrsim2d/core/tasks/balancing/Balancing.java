@@ -42,14 +42,13 @@ import io.github.ericmedvet.mrsim2d.core.geometry.Path;
 import io.github.ericmedvet.mrsim2d.core.geometry.Point;
 import io.github.ericmedvet.mrsim2d.core.geometry.Poly;
 import io.github.ericmedvet.mrsim2d.core.geometry.Terrain;
+import io.github.ericmedvet.mrsim2d.core.geometry.TerrainIndex;
 import io.github.ericmedvet.mrsim2d.core.tasks.AgentsObservation;
+import io.github.ericmedvet.mrsim2d.core.tasks.AgentsOutcome;
+import io.github.ericmedvet.mrsim2d.core.tasks.StopCondition;
 import io.github.ericmedvet.mrsim2d.core.tasks.Task;
-import io.github.ericmedvet.mrsim2d.core.util.PolyUtils;
 import java.util.Collection;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
-import java.util.TreeMap;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
 
@@ -68,6 +67,10 @@ public class Balancing implements Task<Supplier<EmbodiedAgent>, BalancingObserva
   private final double swingDensity;
   private final double supportHeight;
   private final double initialXGap;
+  private final boolean keepObservations;
+  private final double observationInterval;
+  private final StopCondition stopCondition;
+  private final int stopCheckInterval;
 
   public Balancing(
       double duration,
@@ -75,13 +78,41 @@ public class Balancing implements Task<Supplier<EmbodiedAgent>, BalancingObserva
       double swingDensity,
       double supportHeight,
       double initialXGap,
-      double initialYGap) {
+      double initialYGap,
+      boolean keepObservations,
+      double observationInterval,
+      StopCondition stopCondition,
+      int stopCheckInterval) {
     this.duration = duration;
     this.swingLength = swingLength;
     this.swingDensity = swingDensity;
     this.supportHeight = supportHeight;
     this.initialXGap = initialXGap;
     this.initialYGap = initialYGap;
+    this.keepObservations = keepObservations;
+    this.observationInterval = observationInterval;
+    this.stopCondition = stopCondition;
+    this.stopCheckInterval = stopCheckInterval;
+  }
+
+  public Balancing(
+      double duration,
+      double swingLength,
+      double swingDensity,
+      double supportHeight,
+      double initialXGap,
+      double initialYGap) {
+    this(
+        duration,
+        swingLength,
+        swingDensity,
+        supportHeight,
+        initialXGap,
+        initialYGap,
+        false,
+        0d,
+        StopCondition.NEVER,
+        0);
   }
 
   public Balancing(
@@ -97,13 +128,15 @@ public class Balancing implements Task<Supplier<EmbodiedAgent>, BalancingObserva
     // build world
     Terrain terrain =
         Terrain.fromPath(new Path(new Point(TERRAIN_W, 0)), TERRAIN_H, TERRAIN_BORDER_W, TERRAIN_BORDER_H);
+    TerrainIndex terrainIndex = new TerrainIndex(terrain);
     UnmovableBody ground = engine.perform(new CreateUnmovableBody(terrain.poly()))
         .outcome()
         .orElseThrow();
     // create swing
     double worldCenterX = terrain.withinBordersXRange().min()
         + terrain.withinBordersXRange().extent() / 2d;
-    Point worldCenter = new Point(worldCenterX, terrain.maxHeightAt(new DoubleRange(worldCenterX, worldCenterX)));
+    Point worldCenter =
+        new Point(worldCenterX, terrainIndex.maxHeightAt(new DoubleRange(worldCenterX, worldCenterX)));
     RigidBody support = engine.perform(new CreateUnmovableBody(Poly.rectangle(SUPPORT_WIDTH, supportHeight), 1d))
         .outcome()
         .orElseThrow();
@@ -134,27 +167,35 @@ public class Balancing implements Task<Supplier<EmbodiedAgent>, BalancingObserva
         BoundingBox.Anchor.CL,
         swing.poly().boundingBox().anchor(BoundingBox.Anchor.CU).sum(new Point(initialXGap, initialYGap))));
     // run for defined time
-    Map<Double, BalancingObservation> observations = new HashMap<>();
+    AgentsOutcome.Recorder<BalancingObservation> recorder =
+        BalancingAgentsOutcome.recorder(keepObservations, observationInterval);
     while (engine.t() < duration) {
       Snapshot snapshot = engine.tick();
       snapshotConsumer.accept(snapshot);
-      Collection<Body> swingInContactBodies =
-          engine.perform(new FindInContactBodies(swing)).outcome().orElseThrow();
-      observations.put(
+      if (recorder.recordTick(
           engine.t(),
-          new BalancingObservation(
-              List.of(new AgentsObservation.Agent(
-                  embodiedAgent.bodyParts().stream()
-                      .map(Body::poly)
-                      .toList(),
-                  PolyUtils.maxYAtX(
-                      terrain.poly(),
-                      embodiedAgent.boundingBox().center().x()))),
-              swing.angle(),
-              swingInContactBodies.contains(ground),
-              swing.poly().boundingBox()));
+          engine.t() >= duration,
+          () -> {
+            Collection<Body> swingInContactBodies = engine.perform(new FindInContactBodies(swing))
+                .outcome()
+                .orElseThrow();
+            return new BalancingObservation(
+                List.of(new AgentsObservation.Agent(
+                    embodiedAgent.geometry().polys(),
+                    terrainIndex.maxYAtX(embodiedAgent
+                        .boundingBox()
+                        .center()
+                        .x()))),
+                swing.angle(),
+                swingInContactBodies.contains(ground),
+                swing.poly().boundingBox());
+          },
+          stopCondition,
+          stopCheckInterval)) {
+        break;
+      }
     }
     // return
-    return new BalancingAgentsOutcome(new TreeMap<>(observations));
+    return new BalancingAgentsOutcome(recorder);
   }
 }
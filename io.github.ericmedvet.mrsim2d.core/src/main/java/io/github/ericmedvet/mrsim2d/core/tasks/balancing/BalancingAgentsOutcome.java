@@ -21,29 +21,48 @@ package io.github.ericmedvet.mrsim2d.core.tasks.balancing;
 
 import io.github.ericmedvet.jnb.datastructure.DoubleRange;
 import io.github.ericmedvet.mrsim2d.core.tasks.AgentsOutcome;
+import java.util.List;
 import java.util.SortedMap;
+import java.util.function.ToDoubleFunction;
 
 public class BalancingAgentsOutcome extends AgentsOutcome<BalancingObservation> {
+
+  private static final List<ToDoubleFunction<? super BalancingObservation>> EXTRA_METRICS =
+      List.of(bo -> Math.abs(bo.getSwingAngle()), bo -> bo.areAllAgentsOnSwing() ? 0d : 1d);
+
   public BalancingAgentsOutcome(SortedMap<Double, BalancingObservation> observations) {
-    super(observations);
+    super(observations, EXTRA_METRICS);
+  }
+
+  public BalancingAgentsOutcome(Recorder<BalancingObservation> recorder) {
+    super(recorder);
+  }
+
+  private BalancingAgentsOutcome(BalancingAgentsOutcome outcome, DoubleRange tRange) {
+    super(outcome, tRange);
+  }
+
+  public static Recorder<BalancingObservation> recorder(boolean keepObservations, double observationInterval) {
+    return new Recorder<>(keepObservations, observationInterval, EXTRA_METRICS);
   }
 
   public double avgSwingAngle() {
-    return snapshots().values().stream()
-        .mapToDouble(bo -> Math.abs(bo.getSwingAngle()))
+    return extraMetric(0)
         .average()
         .orElseThrow(() -> new IllegalArgumentException("No observations: cannot compute average angle"));
   }
 
   public double avgSwingAngleWithMalus(double malus) {
-    return snapshots().values().stream()
-        .mapToDouble(bo -> Math.abs(bo.getSwingAngle()) + (bo.areAllAgentsOnSwing() ? 0 : malus))
-        .average()
-        .orElseThrow(() -> new IllegalArgumentException("No observations: cannot compute average angle"));
+    return avgSwingAngle() + malus * extraMetric(1).average().orElse(0d);
+  }
+
+  @Override
+  protected BalancingAgentsOutcome createSubOutcome(DoubleRange tRange) {
+    return new BalancingAgentsOutcome(this, tRange);
   }
 
   @Override
   public BalancingAgentsOutcome subOutcome(DoubleRange tRange) {
-    return new BalancingAgentsOutcome(super.subOutcome(tRange).snapshots());
+    return (BalancingAgentsOutcome) super.subOutcome(tRange);
   }
 }
@@ -25,20 +25,17 @@ import io.github.ericmedvet.mrsim2d.core.Snapshot;
 import io.github.ericmedvet.mrsim2d.core.actions.AddAgent;
 import io.github.ericmedvet.mrsim2d.core.actions.CreateUnmovableBody;
 import io.github.ericmedvet.mrsim2d.core.actions.TranslateAgent;
-import io.github.ericmedvet.mrsim2d.core.bodies.Body;
 import io.github.ericmedvet.mrsim2d.core.engine.Engine;
 import io.github.ericmedvet.mrsim2d.core.geometry.BoundingBox;
 import io.github.ericmedvet.mrsim2d.core.geometry.Path;
 import io.github.ericmedvet.mrsim2d.core.geometry.Point;
 import io.github.ericmedvet.mrsim2d.core.geometry.Terrain;
+import io.github.ericmedvet.mrsim2d.core.geometry.TerrainIndex;
 import io.github.ericmedvet.mrsim2d.core.tasks.AgentsObservation;
 import io.github.ericmedvet.mrsim2d.core.tasks.AgentsOutcome;
+import io.github.ericmedvet.mrsim2d.core.tasks.StopCondition;
 import io.github.ericmedvet.mrsim2d.core.tasks.Task;
-import io.github.ericmedvet.mrsim2d.core.util.PolyUtils;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
-import java.util.TreeMap;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
 
@@ -51,10 +48,32 @@ public class Jumping implements Task<Supplier<EmbodiedAgent>, AgentsObservation,
   private static final double INITIAL_Y_GAP = 0.25;
   private final double duration;
   private final double initialYGap;
+  private final boolean keepObservations;
+  private final double observationInterval;
+  private final StopCondition stopCondition;
+  private final int stopCheckInterval;
+  private final Terrain terrain;
+  private final TerrainIndex terrainIndex;
 
-  public Jumping(double duration, double initialYGap) {
+  public Jumping(
+      double duration,
+      double initialYGap,
+      boolean keepObservations,
+      double observationInterval,
+      StopCondition stopCondition,
+      int stopCheckInterval) {
     this.duration = duration;
     this.initialYGap = initialYGap;
+    this.keepObservations = keepObservations;
+    this.observationInterval = observationInterval;
+    this.stopCondition = stopCondition;
+    this.stopCheckInterval = stopCheckInterval;
+    terrain = Terrain.fromPath(new Path(new Point(TERRAIN_W, 0)), TERRAIN_H, TERRAIN_BORDER_W, TERRAIN_BORDER_H);
+    terrainIndex = new TerrainIndex(terrain);
+  }
+
+  public Jumping(double duration, double initialYGap) {
+    this(duration, initialYGap, false, 0d, StopCondition.NEVER, 0);
   }
 
   public Jumping(double duration) {
@@ -67,8 +86,6 @@ public class Jumping implements Task<Supplier<EmbodiedAgent>, AgentsObservation,
     // create agent
     EmbodiedAgent embodiedAgent = embodiedAgentSupplier.get();
     // build world
-    Terrain terrain =
-        Terrain.fromPath(new Path(new Point(TERRAIN_W, 0)), TERRAIN_H, TERRAIN_BORDER_W, TERRAIN_BORDER_H);
     engine.perform(new CreateUnmovableBody(terrain.poly()));
     // place agent
     engine.perform(new AddAgent(embodiedAgent));
@@ -82,23 +99,28 @@ public class Jumping implements Task<Supplier<EmbodiedAgent>, AgentsObservation,
                 + agentBB.xRange().extent() / 2d,
             0)));
     agentBB = embodiedAgent.boundingBox();
-    double maxY = terrain.maxHeightAt(agentBB.xRange());
+    double maxY = terrainIndex.maxHeightAt(agentBB.xRange());
     engine.perform(new TranslateAgent(
         embodiedAgent, new Point(0, maxY + initialYGap - agentBB.min().y())));
     // run for defined time
-    Map<Double, AgentsObservation> observations = new HashMap<>();
+    AgentsOutcome.Recorder<AgentsObservation> recorder =
+        new AgentsOutcome.Recorder<>(keepObservations, observationInterval);
     while (engine.t() < duration) {
       Snapshot snapshot = engine.tick();
       snapshotConsumer.accept(snapshot);
-      observations.put(
+      if (recorder.recordTick(
           engine.t(),
-          new AgentsObservation(List.of(new AgentsObservation.Agent(
-              embodiedAgent.bodyParts().stream().map(Body::poly).toList(),
-              PolyUtils.maxYAtX(
-                  terrain.poly(),
-                  embodiedAgent.boundingBox().center().x())))));
+          engine.t() >= duration,
+          () -> new AgentsObservation(List.of(new AgentsObservation.Agent(
+              embodiedAgent.geometry().polys(),
+              terrainIndex.maxYAtX(
+                  embodiedAgent.boundingBox().center().x())))),
+          stopCondition,
+          stopCheckInterval)) {
+        break;
+      }
     }
     // return
-    return new AgentsOutcome<>(new TreeMap<>(observations));
+    return new AgentsOutcome<>(recorder);
   }
 }
@@ -30,19 +30,16 @@ import io.github.ericmedvet.mrsim2d.core.agents.gridvsr.GridBody;
 import io.github.ericmedvet.mrsim2d.core.agents.gridvsr.GridBody.VoxelType;
 import io.github.ericmedvet.mrsim2d.core.agents.independentvoxel.AbstractIndependentVoxel;
 import io.github.ericmedvet.mrsim2d.core.bodies.Anchor;
-import io.github.ericmedvet.mrsim2d.core.bodies.Body;
 import io.github.ericmedvet.mrsim2d.core.engine.Engine;
 import io.github.ericmedvet.mrsim2d.core.geometry.BoundingBox;
 import io.github.ericmedvet.mrsim2d.core.geometry.Point;
 import io.github.ericmedvet.mrsim2d.core.geometry.Terrain;
+import io.github.ericmedvet.mrsim2d.core.geometry.TerrainIndex;
 import io.github.ericmedvet.mrsim2d.core.tasks.AgentsObservation;
 import io.github.ericmedvet.mrsim2d.core.tasks.AgentsOutcome;
+import io.github.ericmedvet.mrsim2d.core.tasks.StopCondition;
 import io.github.ericmedvet.mrsim2d.core.tasks.Task;
-import io.github.ericmedvet.mrsim2d.core.util.PolyUtils;
-import java.util.HashMap;
-import java.util.Map;
 import java.util.Objects;
-import java.util.TreeMap;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
 
@@ -51,17 +48,40 @@ public class PrebuiltIndependentLocomotion
 
   private final double duration;
   private final Terrain terrain;
+  private final TerrainIndex terrainIndex;
   private final double initialXGap;
   private final double initialYGap;
   private final Grid<VoxelType> shape;
+  private final boolean keepObservations;
+  private final double observationInterval;
+  private final StopCondition stopCondition;
+  private final int stopCheckInterval;
 
   public PrebuiltIndependentLocomotion(
-      double duration, Terrain terrain, double initialXGap, double initialYGap, Grid<GridBody.VoxelType> shape) {
+      double duration,
+      Terrain terrain,
+      double initialXGap,
+      double initialYGap,
+      Grid<GridBody.VoxelType> shape,
+      boolean keepObservations,
+      double observationInterval,
+      StopCondition stopCondition,
+      int stopCheckInterval) {
     this.duration = duration;
     this.terrain = terrain;
+    terrainIndex = new TerrainIndex(terrain);
     this.initialXGap = initialXGap;
     this.initialYGap = initialYGap;
     this.shape = shape;
+    this.keepObservations = keepObservations;
+    this.observationInterval = observationInterval;
+    this.stopCondition = stopCondition;
+    this.stopCheckInterval = stopCheckInterval;
+  }
+
+  public PrebuiltIndependentLocomotion(
+      double duration, Terrain terrain, double initialXGap, double initialYGap, Grid<GridBody.VoxelType> shape) {
+    this(duration, terrain, initialXGap, initialYGap, shape, false, 0d, StopCondition.NEVER, 0);
   }
 
   @Override
@@ -97,7 +117,7 @@ public class PrebuiltIndependentLocomotion
         .orElseThrow();
     double dX =
         terrain.withinBordersXRange().min() + initialXGap - allBB.min().x();
-    double maxY = terrain.maxHeightAt(allBB.xRange().delta(dX));
+    double maxY = terrainIndex.maxHeightAt(allBB.xRange().delta(dX));
     agents.values().stream()
         .filter(Objects::nonNull)
         .forEach(a -> engine.perform(new TranslateAgent(
@@ -116,22 +136,27 @@ public class PrebuiltIndependentLocomotion
       }
     }
     // run for defined time
-    Map<Double, AgentsObservation> observations = new HashMap<>();
+    AgentsOutcome.Recorder<AgentsObservation> recorder =
+        new AgentsOutcome.Recorder<>(keepObservations, observationInterval);
     while (engine.t() < duration) {
       Snapshot snapshot = engine.tick();
       snapshotConsumer.accept(snapshot);
-      observations.put(
+      if (recorder.recordTick(
           engine.t(),
-          new AgentsObservation(agents.values().stream()
+          engine.t() >= duration,
+          () -> new AgentsObservation(agents.values().stream()
               .filter(Objects::nonNull)
               .map(a -> new AgentsObservation.Agent(
-                  a.bodyParts().stream().map(Body::poly).toList(),
-                  PolyUtils.maxYAtX(
-                      terrain.poly(),
+                  a.geometry().polys(),
+                  terrainIndex.maxYAtX(
                       a.boundingBox().center().x())))
-              .toList()));
+              .toList()),
+          stopCondition,
+          stopCheckInterval)) {
+        break;
+      }
     }
     // return
-    return new AgentsOutcome<>(new TreeMap<>(observations));
+    return new AgentsOutcome<>(recorder);
   }
 }
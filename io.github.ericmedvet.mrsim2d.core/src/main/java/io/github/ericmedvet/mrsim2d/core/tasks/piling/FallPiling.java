@@ -26,20 +26,17 @@ import io.github.ericmedvet.mrsim2d.core.Snapshot;
 import io.github.ericmedvet.mrsim2d.core.actions.AddAgent;
 import io.github.ericmedvet.mrsim2d.core.actions.CreateUnmovableBody;
 import io.github.ericmedvet.mrsim2d.core.actions.TranslateAgent;
-import io.github.ericmedvet.mrsim2d.core.bodies.Body;
 import io.github.ericmedvet.mrsim2d.core.engine.Engine;
 import io.github.ericmedvet.mrsim2d.core.geometry.BoundingBox;
 import io.github.ericmedvet.mrsim2d.core.geometry.Point;
 import io.github.ericmedvet.mrsim2d.core.geometry.Terrain;
+import io.github.ericmedvet.mrsim2d.core.geometry.TerrainIndex;
 import io.github.ericmedvet.mrsim2d.core.tasks.AgentsObservation;
 import io.github.ericmedvet.mrsim2d.core.tasks.AgentsOutcome;
+import io.github.ericmedvet.mrsim2d.core.tasks.StopCondition;
 import io.github.ericmedvet.mrsim2d.core.tasks.Task;
-import io.github.ericmedvet.mrsim2d.core.util.PolyUtils;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
-import java.util.TreeMap;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
 import java.util.random.RandomGenerator;
@@ -54,8 +51,13 @@ public class FallPiling implements Task<Supplier<EmbodiedAgent>, AgentsObservati
   private final double xSigmaRatio;
   private final RandomGenerator randomGenerator;
   private final Terrain terrain;
+  private final TerrainIndex terrainIndex;
   private final double yGapRatio;
   private final double xGap;
+  private final boolean keepObservations;
+  private final double observationInterval;
+  private final StopCondition stopCondition;
+  private final int stopCheckInterval;
 
   public FallPiling(
       double duration,
@@ -65,15 +67,48 @@ public class FallPiling implements Task<Supplier<EmbodiedAgent>, AgentsObservati
       RandomGenerator randomGenerator,
       Terrain terrain,
       double yGapRatio,
-      double xGap) {
+      double xGap,
+      boolean keepObservations,
+      double observationInterval,
+      StopCondition stopCondition,
+      int stopCheckInterval) {
     this.duration = duration;
     this.fallInterval = fallInterval;
     this.nOfAgents = nOfAgents;
     this.xSigmaRatio = xSigmaRatio;
     this.randomGenerator = randomGenerator;
     this.terrain = terrain;
+    terrainIndex = new TerrainIndex(terrain);
     this.xGap = xGap;
     this.yGapRatio = yGapRatio;
+    this.keepObservations = keepObservations;
+    this.observationInterval = observationInterval;
+    this.stopCondition = stopCondition;
+    this.stopCheckInterval = stopCheckInterval;
+  }
+
+  public FallPiling(
+      double duration,
+      double fallInterval,
+      int nOfAgents,
+      double xSigmaRatio,
+      RandomGenerator randomGenerator,
+      Terrain terrain,
+      double yGapRatio,
+      double xGap) {
+    this(
+        duration,
+        fallInterval,
+        nOfAgents,
+        xSigmaRatio,
+        randomGenerator,
+        terrain,
+        yGapRatio,
+        xGap,
+        false,
+        0d,
+        StopCondition.NEVER,
+        0);
   }
 
   public FallPiling(
@@ -93,7 +128,7 @@ public class FallPiling implements Task<Supplier<EmbodiedAgent>, AgentsObservati
         .delta(terrain.withinBordersXRange().min() + xGap);
     double baseY;
     if (agents.isEmpty()) {
-      baseY = terrain.maxHeightAt(xRange);
+      baseY = terrainIndex.maxHeightAt(xRange);
     } else {
       baseY = agents.stream()
           .map(EmbodiedAgent::boundingBox)
@@ -120,7 +155,8 @@ public class FallPiling implements Task<Supplier<EmbodiedAgent>, AgentsObservati
     // build world
     engine.perform(new CreateUnmovableBody(terrain.poly()));
     // run for defined time
-    Map<Double, AgentsObservation> observations = new HashMap<>();
+    AgentsOutcome.Recorder<AgentsObservation> recorder =
+        new AgentsOutcome.Recorder<>(keepObservations, observationInterval);
     List<EmbodiedAgent> agents = new ArrayList<>(nOfAgents);
     while (engine.t() < duration) {
       // check if new agent needed
@@ -133,16 +169,20 @@ public class FallPiling implements Task<Supplier<EmbodiedAgent>, AgentsObservati
       // tick
       Snapshot snapshot = engine.tick();
       snapshotConsumer.accept(snapshot);
-      observations.put(
+      if (recorder.recordTick(
           engine.t(),
-          new AgentsObservation(agents.stream()
+          engine.t() >= duration,
+          () -> new AgentsObservation(agents.stream()
               .map(a -> new AgentsObservation.Agent(
-                  a.bodyParts().stream().map(Body::poly).toList(),
-                  PolyUtils.maxYAtX(
-                      terrain.poly(),
+                  a.geometry().polys(),
+                  terrainIndex.maxYAtX(
                       a.boundingBox().center().x())))
-              .toList()));
+              .toList()),
+          stopCondition,
+          stopCheckInterval)) {
+        break;
+      }
     }
-    return new AgentsOutcome<>(new TreeMap<>(observations));
+    return new AgentsOutcome<>(recorder);
   }
 }
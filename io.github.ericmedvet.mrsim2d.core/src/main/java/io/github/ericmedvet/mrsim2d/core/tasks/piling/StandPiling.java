@@ -26,20 +26,17 @@ import io.github.ericmedvet.mrsim2d.core.Snapshot;
 import io.github.ericmedvet.mrsim2d.core.actions.AddAgent;
 import io.github.ericmedvet.mrsim2d.core.actions.CreateUnmovableBody;
 import io.github.ericmedvet.mrsim2d.core.actions.TranslateAgent;
-import io.github.ericmedvet.mrsim2d.core.bodies.Body;
 import io.github.ericmedvet.mrsim2d.core.engine.Engine;
 import io.github.ericmedvet.mrsim2d.core.geometry.BoundingBox;
 import io.github.ericmedvet.mrsim2d.core.geometry.Point;
 import io.github.ericmedvet.mrsim2d.core.geometry.Terrain;
+import io.github.ericmedvet.mrsim2d.core.geometry.TerrainIndex;
 import io.github.ericmedvet.mrsim2d.core.tasks.AgentsObservation;
 import io.github.ericmedvet.mrsim2d.core.tasks.AgentsOutcome;
+import io.github.ericmedvet.mrsim2d.core.tasks.StopCondition;
 import io.github.ericmedvet.mrsim2d.core.tasks.Task;
-import io.github.ericmedvet.mrsim2d.core.util.PolyUtils;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
-import java.util.TreeMap;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
 
@@ -51,17 +48,41 @@ public class StandPiling implements Task<Supplier<EmbodiedAgent>, AgentsObservat
   private final int nOfAgents;
   private final double xGapRatio;
   private final Terrain terrain;
+  private final TerrainIndex terrainIndex;
   private final double firstXGap;
   private final double initialYGap;
+  private final boolean keepObservations;
+  private final double observationInterval;
+  private final StopCondition stopCondition;
+  private final int stopCheckInterval;
 
   public StandPiling(
-      double duration, int nOfAgents, double xGapRatio, Terrain terrain, double firstXGap, double initialYGap) {
+      double duration,
+      int nOfAgents,
+      double xGapRatio,
+      Terrain terrain,
+      double firstXGap,
+      double initialYGap,
+      boolean keepObservations,
+      double observationInterval,
+      StopCondition stopCondition,
+      int stopCheckInterval) {
     this.duration = duration;
     this.nOfAgents = nOfAgents;
     this.xGapRatio = xGapRatio;
     this.terrain = terrain;
+    terrainIndex = new TerrainIndex(terrain);
     this.firstXGap = firstXGap;
     this.initialYGap = initialYGap;
+    this.keepObservations = keepObservations;
+    this.observationInterval = observationInterval;
+    this.stopCondition = stopCondition;
+    this.stopCheckInterval = stopCheckInterval;
+  }
+
+  public StandPiling(
+      double duration, int nOfAgents, double xGapRatio, Terrain terrain, double firstXGap, double initialYGap) {
+    this(duration, nOfAgents, xGapRatio, terrain, firstXGap, initialYGap, false, 0d, StopCondition.NEVER, 0);
   }
 
   public StandPiling(double duration, int nOfAgents, double xGapRatio, Terrain terrain) {
@@ -75,7 +96,7 @@ public class StandPiling implements Task<Supplier<EmbodiedAgent>, AgentsObservat
         .orElse(terrain.withinBordersXRange().min() + firstXGap);
     BoundingBox agentBB = agent.boundingBox();
     DoubleRange xRange = agentBB.xRange().delta(-agentBB.width() / 2d).delta(baseX + agentBB.width() * xGapRatio);
-    double y = terrain.maxHeightAt(xRange) + initialYGap;
+    double y = terrainIndex.maxHeightAt(xRange) + initialYGap;
     engine.perform(new TranslateAgent(
         agent,
         new Point(
@@ -97,21 +118,26 @@ public class StandPiling implements Task<Supplier<EmbodiedAgent>, AgentsObservat
       agents.add(agent);
     }
     // run for defined time
-    Map<Double, AgentsObservation> observations = new HashMap<>();
+    AgentsOutcome.Recorder<AgentsObservation> recorder =
+        new AgentsOutcome.Recorder<>(keepObservations, observationInterval);
     while (engine.t() < duration) {
       // tick
       Snapshot snapshot = engine.tick();
       snapshotConsumer.accept(snapshot);
-      observations.put(
+      if (recorder.recordTick(
           engine.t(),
-          new AgentsObservation(agents.stream()
+          engine.t() >= duration,
+          () -> new AgentsObservation(agents.stream()
               .map(a -> new AgentsObservation.Agent(
-                  a.bodyParts().stream().map(Body::poly).toList(),
-                  PolyUtils.maxYAtX(
-                      terrain.poly(),
+                  a.geometry().polys(),
+                  terrainIndex.maxYAtX(
                       a.boundingBox().center().x())))
-              .toList()));
+              .toList()),
+          stopCondition,
+          stopCheckInterval)) {
+        break;
+      }
     }
-    return new AgentsOutcome<>(new TreeMap<>(observations));
+    return new AgentsOutcome<>(recorder);
   }
 }
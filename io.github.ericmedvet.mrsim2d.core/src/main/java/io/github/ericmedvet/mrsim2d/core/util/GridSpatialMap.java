@@ -0,0 +1,289 @@
+/*-
+ * ========================LICENSE_START=================================
+ * mrsim2d-core
+ * %%
+ * Copyright (C) 2020 - 2024 Eric Medvet
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package io.github.ericmedvet.mrsim2d.core.util;
+
+import io.github.ericmedvet.mrsim2d.core.geometry.Point;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+
+public class GridSpatialMap<T> implements SpatialMap<T> {
+
+  private static final int INITIAL_CAPACITY = 64;
+  private static final int INITIAL_N_OF_CELLS = 64;
+
+  private final double cellSize;
+  private final ToIntFunction<? super T> channelFunction;
+  private final Cells[] channelCells;
+  private double[] xs;
+  private double[] ys;
+  private Object[] items;
+  private int[] nexts;
+  private int n;
+  private int stamp;
+
+  public GridSpatialMap(double cellSize, int nOfChannels, ToIntFunction<? super T> channelFunction) {
+    if (nOfChannels < 1) {
+      throw new IllegalArgumentException("Invalid number of channels: %d".formatted(nOfChannels));
+    }
+    this.cellSize = cellSize;
+    this.channelFunction = channelFunction;
+    channelCells = new Cells[nOfChannels];
+    for (int i = 0; i < nOfChannels; i = i + 1) {
+      channelCells[i] = new Cells(INITIAL_N_OF_CELLS);
+    }
+    xs = new double[INITIAL_CAPACITY];
+    ys = new double[INITIAL_CAPACITY];
+    items = new Object[INITIAL_CAPACITY];
+    nexts = new int[INITIAL_CAPACITY];
+    stamp = 1;
+  }
+
+  public GridSpatialMap(double cellSize) {
+    this(cellSize, 1, t -> 0);
+  }
+
+  // open addressing table from packed cell keys to the first and last item of the cell; slots are valid only if
+  // their stamp is the current one, hence clearing does not require touching the slots
+  private static class Cells {
+    private long[] keys;
+    private int[] heads;
+    private int[] tails;
+    private int[] stamps;
+    private int size;
+
+    private Cells(int capacity) {
+      keys = new long[capacity];
+      heads = new int[capacity];
+      tails = new int[capacity];
+      stamps = new int[capacity];
+    }
+
+    private void clear() {
+      size = 0;
+    }
+
+    private int find(long key, int stamp) {
+      int mask = keys.length - 1;
+      int slot = hash(key) & mask;
+      while (stamps[slot] == stamp) {
+        if (keys[slot] == key) {
+          return slot;
+        }
+        slot = (slot + 1) & mask;
+      }
+      return -1;
+    }
+
+    private void put(long key, int index, int[] nexts, int stamp) {
+      if (2 * (size + 1) > keys.length) {
+        resize(stamp);
+      }
+      int mask = keys.length - 1;
+      int slot = hash(key) & mask;
+      while (stamps[slot] == stamp) {
+        if (keys[slot] == key) {
+          nexts[tails[slot]] = index;
+          tails[slot] = index;
+          return;
+        }
+        slot = (slot + 1) & mask;
+      }
+      keys[slot] = key;
+      heads[slot] = index;
+      tails[slot] = index;
+      stamps[slot] = stamp;
+      size = size + 1;
+    }
+
+    private void resize(int stamp) {
+      long[] oldKeys = keys;
+      int[] oldHeads = heads;
+      int[] oldTails = tails;
+      int[] oldStamps = stamps;
+      keys = new long[oldKeys.length * 2];
+      heads = new int[oldKeys.length * 2];
+      tails = new int[oldKeys.length * 2];
+      stamps = new int[oldKeys.length * 2];
+      int mask = keys.length - 1;
+      for (int i = 0; i < oldKeys.length; i = i + 1) {
+        if (oldStamps[i] == stamp) {
+          int slot = hash(oldKeys[i]) & mask;
+          while (stamps[slot] == stamp) {
+            slot = (slot + 1) & mask;
+          }
+          keys[slot] = oldKeys[i];
+          heads[slot] = oldHeads[i];
+          tails[slot] = oldTails[i];
+          stamps[slot] = stamp;
+        }
+      }
+    }
+
+    private void resetStamps() {
+      Arrays.fill(stamps, 0);
+    }
+  }
+
+  private static int hash(long key) {
+    long h = key * 0x9E3779B97F4A7C15L;
+    return (int) (h ^ (h >>> 32));
+  }
+
+  private static long key(int cellX, int cellY) {
+    return ((long) cellX << 32) | (cellY & 0xFFFFFFFFL);
+  }
+
+  @Override
+  public void add(Point p, T t) {
+    int channel = channelFunction.applyAsInt(t);
+    if (channel < 0 || channel >= channelCells.length) {
+      throw new IllegalArgumentException(
+          "Invalid channel: %d not in [0,%d]".formatted(channel, channelCells.length - 1));
+    }
+    if (n == items.length) {
+      int capacity = items.length * 2;
+      xs = Arrays.copyOf(xs, capacity);
+      ys = Arrays.copyOf(ys, capacity);
+      items = Arrays.copyOf(items, capacity);
+      nexts = Arrays.copyOf(nexts, capacity);
+    }
+    xs[n] = p.x();
+    ys[n] = p.y();
+    items[n] = t;
+    nexts[n] = -1;
+    channelCells[channel].put(key(cell(p.x()), cell(p.y())), n, nexts, stamp);
+    n = n + 1;
+  }
+
+  @SuppressWarnings("unchecked")
+  @Override
+  public Collection<T> all() {
+    List<T> all = new ArrayList<>(n);
+    for (int i = 0; i < n; i = i + 1) {
+      all.add((T) items[i]);
+    }
+    return all;
+  }
+
+  private int cell(double v) {
+    return (int) Math.floor(v / cellSize);
+  }
+
+  @Override
+  public void clear() {
+    Arrays.fill(items, 0, n, null);
+    n = 0;
+    for (Cells cells : channelCells) {
+      cells.clear();
+    }
+    if (stamp == Integer.MAX_VALUE) {
+      for (Cells cells : channelCells) {
+        cells.resetStamps();
+      }
+      stamp = 0;
+    }
+    stamp = stamp + 1;
+  }
+
+  @Override
+  public Collection<T> get(Point p, double range) {
+    List<T> found = new ArrayList<>();
+    for (int channel = 0; channel < channelCells.length; channel = channel + 1) {
+      collect(p, range, channel, found);
+    }
+    return found;
+  }
+
+  public Collection<T> get(Point p, double range, int channel) {
+    List<T> found = new ArrayList<>();
+    collect(p, range, channel, found);
+    return found;
+  }
+
+  @SuppressWarnings("unchecked")
+  private void collect(Point p, double range, int channel, List<T> found) {
+    Cells cells = channelCells[channel];
+    if (cells.size == 0) {
+      return;
+    }
+    int cellX = cell(p.x());
+    int cellY = cell(p.y());
+    int cellRadius = (int) Math.ceil(range / cellSize);
+    double squaredRange = range * range;
+    for (int x = cellX - cellRadius; x <= cellX + cellRadius; x = x + 1) {
+      for (int y = cellY - cellRadius; y <= cellY + cellRadius; y = y + 1) {
+        int slot = cells.find(key(x, y), stamp);
+        if (slot >= 0) {
+          for (int i = cells.heads[slot]; i >= 0; i = nexts[i]) {
+            double dX = xs[i] - p.x();
+            double dY = ys[i] - p.y();
+            if (dX * dX + dY * dY <= squaredRange) {
+              found.add((T) items[i]);
+            }
+          }
+        }
+      }
+    }
+  }
+
+  public int size() {
+    return n;
+  }
+
+  @SuppressWarnings("unchecked")
+  public double sum(Point p, double range, int channel, ToDoubleFunction<? super T> function) {
+    if (channel < 0 || channel >= channelCells.length) {
+      return 0d;
+    }
+    Cells cells = channelCells[channel];
+    if (cells.size == 0) {
+      return 0d;
+    }
+    int cellX = cell(p.x());
+    int cellY = cell(p.y());
+    int cellRadius = (int) Math.ceil(range / cellSize);
+    double squaredRange = range * range;
+    double sum = 0d;
+    for (int x = cellX - cellRadius; x <= cellX + cellRadius; x = x + 1) {
+      for (int y = cellY - cellRadius; y <= cellY + cellRadius; y = y + 1) {
+        int slot = cells.find(key(x, y), stamp);
+        if (slot >= 0) {
+          for (int i = cells.heads[slot]; i >= 0; i = nexts[i]) {
+            double dX = xs[i] - p.x();
+            double dY = ys[i] - p.y();
+            if (dX * dX + dY * dY <= squaredRange) {
+              sum = sum + function.applyAsDouble((T) items[i]);
+            }
+          }
+        }
+      }
+    }
+    return sum;
+  }
+
+  @Override
+  public String toString() {
+    return "GridSpatialMap{" + "cellSize=" + cellSize + ", channels=" + channelCells.length + ", size=" + n + '}';
+  }
+}
@@ -0,0 +1,57 @@
+/*-
+ * ========================LICENSE_START=================================
+ * mrsim2d-core
+ * %%
+ * Copyright (C) 2020 - 2024 Eric Medvet
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package io.github.ericmedvet.mrsim2d.core.util;
+
+import java.util.AbstractCollection;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.function.Supplier;
+
+public class LazyCollection<T> extends AbstractCollection<T> {
+
+  private final Supplier<? extends Collection<T>> supplier;
+  private Collection<T> collection;
+
+  public LazyCollection(Supplier<? extends Collection<T>> supplier) {
+    this.supplier = supplier;
+  }
+
+  private Collection<T> collection() {
+    if (collection == null) {
+      collection = supplier.get();
+    }
+    return collection;
+  }
+
+  @Override
+  public Iterator<T> iterator() {
+    return collection().iterator();
+  }
+
+  @Override
+  public int size() {
+    return collection().size();
+  }
+
+  @Override
+  public String toString() {
+    return collection().toString();
+  }
+}
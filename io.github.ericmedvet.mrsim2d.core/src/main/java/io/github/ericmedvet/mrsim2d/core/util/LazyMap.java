@@ -0,0 +1,62 @@
+/*-
+ * ========================LICENSE_START=================================
+ * mrsim2d-core
+ * %%
+ * Copyright (C) 2020 - 2024 Eric Medvet
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package io.github.ericmedvet.mrsim2d.core.util;
+
+import java.util.AbstractMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+public class LazyMap<K, V> extends AbstractMap<K, V> {
+
+  private final Supplier<? extends Map<K, V>> supplier;
+  private Map<K, V> map;
+
+  public LazyMap(Supplier<? extends Map<K, V>> supplier) {
+    this.supplier = supplier;
+  }
+
+  private Map<K, V> map() {
+    if (map == null) {
+      map = supplier.get();
+    }
+    return map;
+  }
+
+  @Override
+  public Set<Entry<K, V>> entrySet() {
+    return map().entrySet();
+  }
+
+  @Override
+  public V get(Object key) {
+    return map().get(key);
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    return map().containsKey(key);
+  }
+
+  @Override
+  public int size() {
+    return map().size();
+  }
+}
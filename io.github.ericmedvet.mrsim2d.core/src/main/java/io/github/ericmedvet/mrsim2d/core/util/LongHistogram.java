@@ -0,0 +1,98 @@
+/*-
+ * ========================LICENSE_START=================================
+ * mrsim2d-core
+ * %%
+ * Copyright (C) 2020 - 2024 Eric Medvet
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package io.github.ericmedvet.mrsim2d.core.util;
+
+import java.util.Arrays;
+
+public class LongHistogram {
+
+  // values are bucketed by their power of two, each split in 2^SUB_BUCKET_BITS linear sub-buckets
+  private static final int SUB_BUCKET_BITS = 3;
+  private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+  private static final int N_OF_BUCKETS = (Long.SIZE - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+  private final long[] buckets;
+  private long count;
+  private long total;
+
+  public LongHistogram() {
+    buckets = new long[N_OF_BUCKETS];
+  }
+
+  private static int index(long value) {
+    if (value < SUB_BUCKETS) {
+      return (int) value;
+    }
+    int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+    int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+    return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+  }
+
+  private static long value(int index) {
+    if (index < SUB_BUCKETS) {
+      return index;
+    }
+    int shift = index / SUB_BUCKETS - 1;
+    long lower = (long) (SUB_BUCKETS + index % SUB_BUCKETS) << shift;
+    return lower + ((1L << shift) - 1) / 2;
+  }
+
+  public void add(long value) {
+    value = Math.max(0, value);
+    int index = index(value);
+    buckets[index] = buckets[index] + 1;
+    count = count + 1;
+    total = total + value;
+  }
+
+  public void clear() {
+    Arrays.fill(buckets, 0);
+    count = 0;
+    total = 0;
+  }
+
+  public long count() {
+    return count;
+  }
+
+  public long percentile(double p) {
+    if (count == 0) {
+      return 0;
+    }
+    long rank = Math.max(1, (long) Math.ceil(p * count));
+    long cumulated = 0;
+    for (int i = 0; i < buckets.length; i = i + 1) {
+      cumulated = cumulated + buckets[i];
+      if (cumulated >= rank) {
+        return value(i);
+      }
+    }
+    return value(buckets.length - 1);
+  }
+
+  public long total() {
+    return total;
+  }
+
+  @Override
+  public String toString() {
+    return "LongHistogram{" + "count=" + count + ", total=" + total + '}';
+  }
+}
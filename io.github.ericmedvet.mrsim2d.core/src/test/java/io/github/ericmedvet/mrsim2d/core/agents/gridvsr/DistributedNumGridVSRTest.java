@@ -0,0 +1,124 @@
+/*-
+ * ========================LICENSE_START=================================
+ * mrsim2d-core
+ * %%
+ * Copyright (C) 2020 - 2024 Eric Medvet
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+package io.github.ericmedvet.mrsim2d.core.agents.gridvsr;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.github.ericmedvet.jsdynsym.core.numerical.NumericalDynamicalSystem;
+import io.github.ericmedvet.jsdynsym.core.numerical.ann.MultiLayerPerceptron;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.random.RandomGenerator;
+import org.junit.jupiter.api.Test;
+
+class DistributedNumGridVSRTest {
+
+  private static final int[] NEURONS = new int[] {6, 5, 3};
+  private static final int N_OF_BRAINS = 7;
+
+  private static double[][][] weights(RandomGenerator random) {
+    double[][][] weights = new double[NEURONS.length - 1][][];
+    for (int l = 1; l < NEURONS.length; l = l + 1) {
+      weights[l - 1] = new double[NEURONS[l]][NEURONS[l - 1] + 1];
+      for (double[] neuronWeights : weights[l - 1]) {
+        for (int k = 0; k < neuronWeights.length; k = k + 1) {
+          neuronWeights[k] = random.nextGaussian();
+        }
+      }
+    }
+    return weights;
+  }
+
+  private static double[][] inputs(RandomGenerator random) {
+    double[][] inputs = new double[N_OF_BRAINS][NEURONS[0]];
+    for (double[] brainInputs : inputs) {
+      for (int k = 0; k < brainInputs.length; k = k + 1) {
+        brainInputs[k] = random.nextDouble(-1d, 1d);
+      }
+    }
+    return inputs;
+  }
+
+  private static void assertSameAsBrains(
+      DistributedNumGridVSR.MultiLayerPerceptronBatch batch,
+      NumericalDynamicalSystem<?>[] brains,
+      double[][] inputs) {
+    double[][] outputs = new double[N_OF_BRAINS][NEURONS[NEURONS.length - 1]];
+    assertTrue(batch.compute(inputs, outputs));
+    for (int i = 0; i < N_OF_BRAINS; i = i + 1) {
+      assertArrayEquals(((MultiLayerPerceptron) brains[i]).compute(inputs[i]), outputs[i]);
+    }
+  }
+
+  @Test
+  void batchIsTheSameAsBrainsWithSharedWeights() {
+    RandomGenerator random = new Random(1);
+    double[][][] weights = weights(random);
+    NumericalDynamicalSystem<?>[] brains = new NumericalDynamicalSystem<?>[N_OF_BRAINS];
+    for (int i = 0; i < N_OF_BRAINS; i = i + 1) {
+      brains[i] = new MultiLayerPerceptron(MultiLayerPerceptron.ActivationFunction.TANH, weights, NEURONS);
+    }
+    DistributedNumGridVSR.MultiLayerPerceptronBatch batch =
+        DistributedNumGridVSR.MultiLayerPerceptronBatch.of(brains);
+    for (int step = 0; step < 10; step = step + 1) {
+      assertSameAsBrains(batch, brains, inputs(random));
+    }
+    // weights changed after the batch is built are used
+    double[][][] newWeights = weights(random);
+    for (int l = 0; l < weights.length; l = l + 1) {
+      for (int j = 0; j < weights[l].length; j = j + 1) {
+        System.arraycopy(newWeights[l][j], 0, weights[l][j], 0, weights[l][j].length);
+      }
+    }
+    assertSameAsBrains(batch, brains, inputs(random));
+  }
+
+  @Test
+  void batchIsTheSameAsBrainsWithSameBrain() {
+    RandomGenerator random = new Random(2);
+    NumericalDynamicalSystem<?>[] brains = new NumericalDynamicalSystem<?>[N_OF_BRAINS];
+    Arrays.fill(
+        brains,
+        new MultiLayerPerceptron(MultiLayerPerceptron.ActivationFunction.TANH, weights(random), NEURONS));
+    DistributedNumGridVSR.MultiLayerPerceptronBatch batch =
+        DistributedNumGridVSR.MultiLayerPerceptronBatch.of(brains);
+    assertSameAsBrains(batch, brains, inputs(random));
+  }
+
+  @Test
+  void batchIsNotUsedWithDifferentBrains() {
+    RandomGenerator random = new Random(3);
+    NumericalDynamicalSystem<?>[] brains = new NumericalDynamicalSystem<?>[N_OF_BRAINS];
+    for (int i = 0; i < N_OF_BRAINS; i = i + 1) {
+      brains[i] =
+          new MultiLayerPerceptron(MultiLayerPerceptron.ActivationFunction.TANH, weights(random), NEURONS);
+    }
+    DistributedNumGridVSR.MultiLayerPerceptronBatch batch =
+        DistributedNumGridVSR.MultiLayerPerceptronBatch.of(brains);
+    assertFalse(batch.compute(inputs(random), new double[N_OF_BRAINS][NEURONS[NEURONS.length - 1]]));
+    brains[0] =
+        new MultiLayerPerceptron(MultiLayerPerceptron.ActivationFunction.IDENTITY, weights(random), NEURONS);
+    assertNull(DistributedNumGridVSR.MultiLayerPerceptronBatch.of(brains));
+  }
+}
@@ -0,0 +1,114 @@
+/*-
+ * ========================LICENSE_START=================================
+ * mrsim2d-core
+ * %%
+ * Copyright (C) 2020 - 2024 Eric Medvet
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+package io.github.ericmedvet.mrsim2d.core.geometry;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import io.github.ericmedvet.jnb.datastructure.DoubleRange;
+import io.github.ericmedvet.mrsim2d.core.util.PolyUtils;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.random.RandomGenerator;
+import org.junit.jupiter.api.Test;
+
+class TerrainIndexTest {
+
+  private static final int N_OF_TERRAINS = 10;
+  private static final int N_OF_CHECKS = 2000;
+
+  // the scan over the vertexes used before the index
+  private static double scannedMaxHeightAt(Poly poly, DoubleRange xRange) {
+    List<Double> xs = new ArrayList<>(Arrays.stream(poly.vertexes())
+        .filter(v -> v.x() >= xRange.min() && v.x() <= xRange.max())
+        .map(Point::x)
+        .toList());
+    xs.add(xRange.min());
+    xs.add(xRange.max());
+    return xs.stream()
+        .distinct()
+        .mapToDouble(x -> PolyUtils.maxYAtX(poly, x))
+        .filter(d -> !Double.isNaN(d))
+        .max()
+        .orElseThrow(() -> new IllegalArgumentException("No terrain max y"));
+  }
+
+  // slopes, steps, and flat chunks, as in hilly and steppy terrains
+  private static Terrain terrain(RandomGenerator random) {
+    Path path = new Path(new Point(5, 0));
+    for (int i = 0; i < 100; i = i + 1) {
+      double w = Math.max(0.5d, random.nextGaussian() * 0.5d + 2d);
+      double h = random.nextGaussian();
+      path = switch (random.nextInt(3)) {
+        case 0 -> path.moveBy(w, h);
+        case 1 -> path.moveBy(w, 0).moveBy(0, h);
+        default -> path.moveBy(w, 0);};
+    }
+    return Terrain.fromPath(path, 25d, 10d, 100d);
+  }
+
+  private static List<Terrain> terrains() {
+    RandomGenerator random = new Random(1);
+    List<Terrain> terrains = new ArrayList<>();
+    for (int i = 0; i < N_OF_TERRAINS; i = i + 1) {
+      terrains.add(terrain(random));
+    }
+    return terrains;
+  }
+
+  @Test
+  void maxHeightAtIsTheSameAsVertexScan() {
+    RandomGenerator random = new Random(2);
+    for (Terrain terrain : terrains()) {
+      TerrainIndex terrainIndex = new TerrainIndex(terrain);
+      double maxX = terrain.poly().boundingBox().max().x();
+      for (int i = 0; i < N_OF_CHECKS; i = i + 1) {
+        double x = random.nextDouble(-5d, maxX + 5d);
+        DoubleRange xRange = new DoubleRange(x, x + random.nextDouble(0d, 10d));
+        if (xRange.max() < 0d || xRange.min() > maxX) {
+          assertThrows(IllegalArgumentException.class, () -> terrainIndex.maxHeightAt(xRange));
+          continue;
+        }
+        assertEquals(scannedMaxHeightAt(terrain.poly(), xRange), terrainIndex.maxHeightAt(xRange));
+        assertEquals(scannedMaxHeightAt(terrain.poly(), xRange), terrain.maxHeightAt(xRange));
+      }
+    }
+  }
+
+  @Test
+  void maxYAtXIsTheSameAsSideScan() {
+    RandomGenerator random = new Random(3);
+    for (Terrain terrain : terrains()) {
+      TerrainIndex terrainIndex = new TerrainIndex(terrain);
+      double maxX = terrain.poly().boundingBox().max().x();
+      // on vertexes, where sides meet and steps are, and anywhere else, also outside the terrain
+      for (Point vertex : terrain.poly().vertexes()) {
+        assertEquals(PolyUtils.maxYAtX(terrain.poly(), vertex.x()), terrainIndex.maxYAtX(vertex.x()));
+      }
+      for (int i = 0; i < N_OF_CHECKS; i = i + 1) {
+        double x = random.nextDouble(-5d, maxX + 5d);
+        assertEquals(PolyUtils.maxYAtX(terrain.poly(), x), terrainIndex.maxYAtX(x));
+      }
+    }
+  }
+}
@@ -0,0 +1,81 @@
+/*-
+ * ========================LICENSE_START=================================
+ * mrsim2d-core
+ * %%
+ * Copyright (C) 2020 - 2024 Eric Medvet
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+package io.github.ericmedvet.mrsim2d.core.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import io.github.ericmedvet.mrsim2d.core.geometry.Point;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.random.RandomGenerator;
+import org.junit.jupiter.api.Test;
+
+class GridSpatialMapTest {
+
+  private static final int N_OF_CHANNELS = 3;
+  private static final double CELL_SIZE = 1.5d;
+
+  private static List<Integer> sorted(Iterable<Integer> items) {
+    List<Integer> list = new ArrayList<>();
+    items.forEach(list::add);
+    list.sort(Integer::compareTo);
+    return list;
+  }
+
+  @Test
+  void getIsTheSameAsHashSpatialMap() {
+    RandomGenerator random = new Random(1);
+    GridSpatialMap<Integer> gridMap = new GridSpatialMap<>(CELL_SIZE, N_OF_CHANNELS, i -> i % N_OF_CHANNELS);
+    // maps are reused across rounds, as the engine does across ticks
+    for (int round = 0; round < 5; round = round + 1) {
+      HashSpatialMap<Integer> hashMap = new HashSpatialMap<>(CELL_SIZE);
+      gridMap.clear();
+      List<Point> points = new ArrayList<>();
+      for (int i = 0; i < 500; i = i + 1) {
+        Point p = new Point(random.nextDouble(-20d, 20d), random.nextDouble(-20d, 20d));
+        points.add(p);
+        hashMap.add(p, i);
+        gridMap.add(p, i);
+      }
+      assertEquals(sorted(hashMap.all()), sorted(gridMap.all()));
+      for (int i = 0; i < 200; i = i + 1) {
+        // also on stored points, and with ranges smaller and larger than cells
+        Point p = i % 2 == 0
+            ? points.get(random.nextInt(points.size()))
+            : new Point(random.nextDouble(-25d, 25d), random.nextDouble(-25d, 25d));
+        double range = random.nextDouble(0d, 4d * CELL_SIZE);
+        List<Integer> expected = sorted(hashMap.get(p, range));
+        assertEquals(expected, sorted(gridMap.get(p, range)));
+        for (int channel = 0; channel < N_OF_CHANNELS; channel = channel + 1) {
+          int c = channel;
+          List<Integer> expectedOnChannel = expected.stream()
+              .filter(item -> item % N_OF_CHANNELS == c)
+              .toList();
+          assertEquals(expectedOnChannel, sorted(gridMap.get(p, range, channel)));
+          assertEquals(
+              expectedOnChannel.stream().mapToDouble(item -> item).sum(),
+              gridMap.sum(p, range, channel, item -> item));
+        }
+      }
+    }
+  }
+}
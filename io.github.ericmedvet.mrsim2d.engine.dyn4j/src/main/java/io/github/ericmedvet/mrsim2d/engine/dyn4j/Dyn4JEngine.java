@@ -21,6 +21,7 @@
 package io.github.ericmedvet.mrsim2d.engine.dyn4j;
 
 import io.github.ericmedvet.jnb.datastructure.DoubleRange;
+import io.github.ericmedvet.jnb.datastructure.Grid;
 import io.github.ericmedvet.mrsim2d.core.Agent;
 import io.github.ericmedvet.mrsim2d.core.actions.ActuateRotationalJoint;
 import io.github.ericmedvet.mrsim2d.core.actions.ActuateVoxel;
@@ -30,6 +31,7 @@ import io.github.ericmedvet.mrsim2d.core.actions.CreateRigidBody;
 import io.github.ericmedvet.mrsim2d.core.actions.CreateRotationalJoint;
 import io.github.ericmedvet.mrsim2d.core.actions.CreateUnmovableBody;
 import io.github.ericmedvet.mrsim2d.core.actions.CreateVoxel;
+import io.github.ericmedvet.mrsim2d.core.actions.CreateVoxelGrid;
 import io.github.ericmedvet.mrsim2d.core.actions.DetachAllAnchorsFromAnchorable;
 import io.github.ericmedvet.mrsim2d.core.actions.FindInContactBodies;
 import io.github.ericmedvet.mrsim2d.core.actions.RemoveBody;
@@ -41,29 +43,44 @@ import io.github.ericmedvet.mrsim2d.core.bodies.Anchor;
 import io.github.ericmedvet.mrsim2d.core.bodies.Anchorable;
 import io.github.ericmedvet.mrsim2d.core.bodies.Body;
 import io.github.ericmedvet.mrsim2d.core.engine.AbstractEngine;
+import io.github.ericmedvet.mrsim2d.core.engine.ActionException;
+import io.github.ericmedvet.mrsim2d.core.engine.EngineFactory;
 import io.github.ericmedvet.mrsim2d.core.engine.IllegalActionException;
 import io.github.ericmedvet.mrsim2d.core.geometry.Point;
 import io.github.ericmedvet.mrsim2d.core.util.PolyUtils;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Deque;
 import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.Set;
+import org.dyn4j.collision.narrowphase.Raycast;
+import org.dyn4j.collision.narrowphase.RaycastDetector;
 import org.dyn4j.dynamics.BodyFixture;
 import org.dyn4j.dynamics.ContinuousDetectionMode;
 import org.dyn4j.dynamics.Settings;
+import org.dyn4j.dynamics.contact.ContactConstraint;
 import org.dyn4j.dynamics.joint.DistanceJoint;
 import org.dyn4j.dynamics.joint.Joint;
 import org.dyn4j.dynamics.joint.WeldJoint;
+import org.dyn4j.geometry.AABB;
 import org.dyn4j.geometry.Ray;
 import org.dyn4j.geometry.Vector2;
+import org.dyn4j.world.ContactCollisionData;
 import org.dyn4j.world.DetectFilter;
 import org.dyn4j.world.World;
-import org.dyn4j.world.result.RaycastResult;
+import org.dyn4j.world.listener.ContactListenerAdapter;
+import org.dyn4j.world.result.DetectResult;
 
 public class Dyn4JEngine extends AbstractEngine {
 
   private static final Configuration DEFAULT_CONFIGURATION = new Configuration(
-      getDefaultSettings(),
+      null,
       1,
       0.5,
       0.1,
@@ -80,20 +97,86 @@ public class Dyn4JEngine extends AbstractEngine {
       0.3d,
       0.5d,
       10,
-      0.1);
+      0.1,
+      Double.POSITIVE_INFINITY,
+      SolverQuality.ACCURATE,
+      VoxelGridAssembly.WELDED);
   private final Configuration configuration;
   private final World<org.dyn4j.dynamics.Body> world;
+  private final Map<Body, Set<Body>> contacts;
+  private final Map<Body, DetectFilter<org.dyn4j.dynamics.Body, BodyFixture>> detectFilters;
+  private final Map<Body, RaycastCandidates> raycastCandidates;
+  private final Ray ray;
+  private final Vector2 rayStart;
+  private final Vector2 rayDirection;
+  private final Raycast raycast;
+  private long geometryVersion;
+  private final Map<Body, Double> atRestTimes;
+  private final Set<Body> sleepingBodies;
+  private final Set<Body> visitedBodies;
+  private final List<Body> bodyGroup;
+  private final Deque<Body> bodiesToVisit;
 
   public Dyn4JEngine(Configuration configuration) {
     this.configuration = configuration;
     world = new World<>();
-    world.setSettings(configuration.innerSettings());
+    // custom inner settings are used as they are, otherwise the solver settings come from the quality profile
+    if (configuration.innerSettings() != null) {
+      world.setSettings(configuration.innerSettings());
+    } else if (configuration.solverQuality() != null) {
+      solverProfile(configuration.solverQuality()).applyTo(world.getSettings());
+    }
+    // contacts are indexed during each step, as they are added to the world constraint graph
+    contacts = new HashMap<>();
+    world.addContactListener(new ContactListenerAdapter<>() {
+      @Override
+      public void collision(ContactCollisionData<org.dyn4j.dynamics.Body> collision) {
+        ContactConstraint<org.dyn4j.dynamics.Body> constraint = collision.getContactConstraint();
+        if (!constraint.isSensor()
+            && constraint.getBody1().getUserData() instanceof Body body1
+            && constraint.getBody2().getUserData() instanceof Body body2
+            && body1 != body2) {
+          contacts.computeIfAbsent(body1, b -> new LinkedHashSet<>()).add(body2);
+          contacts.computeIfAbsent(body2, b -> new LinkedHashSet<>()).add(body1);
+        }
+      }
+    });
+    // raycasting objects are reused across distance senses
+    detectFilters = new HashMap<>();
+    raycastCandidates = new HashMap<>();
+    rayStart = new Vector2();
+    rayDirection = new Vector2();
+    ray = new Ray(rayStart, 0);
+    raycast = new Raycast();
+    // sleeping is opt-in: sleeping bodies are woken by the world upon contacts with awake bodies, forces, and joint
+    // actuations
+    atRestTimes = new HashMap<>();
+    sleepingBodies = new HashSet<>();
+    visitedBodies = new HashSet<>();
+    bodyGroup = new ArrayList<>();
+    bodiesToVisit = new ArrayDeque<>();
+    world.getSettings().setAtRestDetectionEnabled(Double.isFinite(configuration.quiescenceTime()));
+    if (Double.isFinite(configuration.quiescenceTime())) {
+      world.getSettings().setMinimumAtRestTime(configuration.quiescenceTime());
+    }
   }
 
   public Dyn4JEngine() {
     this(DEFAULT_CONFIGURATION);
   }
 
+  public enum SolverQuality {
+    FAST,
+    BALANCED,
+    ACCURATE
+  }
+
+  public enum VoxelGridAssembly {
+    WELDED,
+    // adjacent voxels share their vertex bodies: such voxels cannot be removed
+    SHARED_VERTEXES
+  }
+
   public record Configuration(
       Settings innerSettings,
       double rigidBodyFriction,
@@ -112,14 +195,73 @@ public class Dyn4JEngine extends AbstractEngine {
       double softLinkSpringD,
       double softLinkRestDistanceRatio,
       double attractionMaxMagnitude,
-      double anchorSideDistance) {}
+      double anchorSideDistance,
+      double quiescenceTime,
+      SolverQuality solverQuality,
+      VoxelGridAssembly voxelGridAssembly) {
+    public Configuration {
+      if (innerSettings != null && solverQuality != null) {
+        throw new IllegalArgumentException(
+            "Cannot use both custom inner settings and solver quality %s".formatted(solverQuality));
+      }
+    }
+  }
+
+  private record RaycastCandidates(
+      long geometryVersion, double range, List<DetectResult<org.dyn4j.dynamics.Body, BodyFixture>> results) {}
+
+  private record SolverProfile(
+      ContinuousDetectionMode continuousDetectionMode,
+      int velocityConstraintSolverIterations,
+      int positionConstraintSolverIterations,
+      double stepFrequency) {
+    private void applyTo(Settings settings) {
+      settings.setContinuousDetectionMode(continuousDetectionMode);
+      settings.setVelocityConstraintSolverIterations(velocityConstraintSolverIterations);
+      settings.setPositionConstraintSolverIterations(positionConstraintSolverIterations);
+      settings.setStepFrequency(stepFrequency);
+    }
+  }
 
-  private static Settings getDefaultSettings() {
-    Settings settings = new Settings();
-    settings.setContinuousDetectionMode(ContinuousDetectionMode.ALL);
-    settings.setVelocityConstraintSolverIterations(20);
-    settings.setPositionConstraintSolverIterations(20);
-    return settings;
+  public static EngineFactory factory(Configuration configuration) {
+    return () -> new Dyn4JEngine(configuration);
+  }
+
+  public static EngineFactory factory(
+      double quiescenceTime, SolverQuality solverQuality, VoxelGridAssembly voxelGridAssembly) {
+    return factory(new Configuration(
+        DEFAULT_CONFIGURATION.innerSettings,
+        DEFAULT_CONFIGURATION.rigidBodyFriction,
+        DEFAULT_CONFIGURATION.rigidBodyRestitution,
+        DEFAULT_CONFIGURATION.rigidBodyLinearDamping,
+        DEFAULT_CONFIGURATION.rigidBodyAngularDamping,
+        DEFAULT_CONFIGURATION.unmovableBodyFriction,
+        DEFAULT_CONFIGURATION.unmovableBodyRestitution,
+        DEFAULT_CONFIGURATION.voxelFriction,
+        DEFAULT_CONFIGURATION.voxelRestitution,
+        DEFAULT_CONFIGURATION.voxelLinearDamping,
+        DEFAULT_CONFIGURATION.voxelAngularDamping,
+        DEFAULT_CONFIGURATION.voxelVertexMassSideLengthRatio,
+        DEFAULT_CONFIGURATION.voxelSpringScaffoldings,
+        DEFAULT_CONFIGURATION.softLinkSpringF,
+        DEFAULT_CONFIGURATION.softLinkSpringD,
+        DEFAULT_CONFIGURATION.softLinkRestDistanceRatio,
+        DEFAULT_CONFIGURATION.attractionMaxMagnitude,
+        DEFAULT_CONFIGURATION.anchorSideDistance,
+        quiescenceTime,
+        solverQuality,
+        voxelGridAssembly));
+  }
+
+  private static SolverProfile solverProfile(SolverQuality solverQuality) {
+    return switch (solverQuality) {
+        // no ccd, few iterations, and a doubled step: fast bodies may tunnel and stacks may be springy
+      case FAST -> new SolverProfile(ContinuousDetectionMode.NONE, 5, 5, 1d / 30d);
+        // ccd on all bodies, dyn4j default iterations
+      case BALANCED -> new SolverProfile(ContinuousDetectionMode.ALL, 10, 10, 1d / 60d);
+        // ccd on all bodies, many iterations: this is the default
+      case ACCURATE -> new SolverProfile(ContinuousDetectionMode.ALL, 20, 20, 1d / 60d);
+    };
   }
 
   private RotationalJoint actuateRotationalJoint(ActuateRotationalJoint action, Agent agent)
@@ -138,7 +280,7 @@ public class Dyn4JEngine extends AbstractEngine {
 
   private Voxel actuateVoxel(ActuateVoxel action, Agent agent) throws IllegalActionException {
     if (action.body() instanceof Voxel voxel) {
-      voxel.actuate(action.values());
+      voxel.actuate(action.nValue(), action.eValue(), action.sValue(), action.wValue());
       return voxel;
     }
     throw new IllegalActionException(
@@ -228,6 +370,7 @@ public class Dyn4JEngine extends AbstractEngine {
         configuration.anchorSideDistance);
     rigidBody.getBodies().forEach(world::addBody);
     bodies.add(rigidBody);
+    geometryVersion = geometryVersion + 1;
     return rigidBody;
   }
 
@@ -246,6 +389,7 @@ public class Dyn4JEngine extends AbstractEngine {
     rotationalJoint.getBodies().forEach(world::addBody);
     rotationalJoint.getJoints().forEach(world::addJoint);
     bodies.add(rotationalJoint);
+    geometryVersion = geometryVersion + 1;
     return rotationalJoint;
   }
 
@@ -258,6 +402,7 @@ public class Dyn4JEngine extends AbstractEngine {
         configuration.anchorSideDistance);
     unmovableBody.getBodies().forEach(world::addBody);
     bodies.add(unmovableBody);
+    geometryVersion = geometryVersion + 1;
     return unmovableBody;
   }
 
@@ -276,20 +421,55 @@ public class Dyn4JEngine extends AbstractEngine {
     voxel.getBodies().forEach(world::addBody);
     voxel.getJoints().forEach(world::addJoint);
     bodies.add(voxel);
+    geometryVersion = geometryVersion + 1;
     return voxel;
   }
 
+  private Grid<io.github.ericmedvet.mrsim2d.core.bodies.Voxel> createVoxelGrid(CreateVoxelGrid action, Agent agent)
+      throws ActionException {
+    if (configuration.voxelGridAssembly().equals(VoxelGridAssembly.WELDED)) {
+      return action.perform(this, agent);
+    }
+    // adjacent voxels share their vertex bodies, hence they need no welding
+    Grid<Voxel> voxels = Voxel.grid(
+        action.sideLength(),
+        action.mass(),
+        configuration.voxelFriction,
+        configuration.voxelRestitution,
+        configuration.voxelLinearDamping,
+        configuration.voxelAngularDamping,
+        configuration.voxelVertexMassSideLengthRatio,
+        configuration.voxelSpringScaffoldings,
+        action.materials());
+    for (Voxel voxel : voxels.values()) {
+      if (voxel != null) {
+        voxel.getBodies().forEach(world::addBody);
+        voxel.getJoints().forEach(world::addJoint);
+        bodies.add(voxel);
+      }
+    }
+    geometryVersion = geometryVersion + 1;
+    return voxels.map(v -> v);
+  }
+
+  private DetectFilter<org.dyn4j.dynamics.Body, BodyFixture> detectFilter(Body body) {
+    if (body instanceof Voxel voxel && voxel.isSharingVertexes()) {
+      // shared vertexes carry the filter of the voxel owning them, hence the other voxels exclude them explicitly
+      return new DetectFilter<>(true, true, new BodyOwnerFilter(body)) {
+        @Override
+        public boolean isAllowed(org.dyn4j.dynamics.Body innerBody, BodyFixture fixture) {
+          return !voxel.hasBody(innerBody) && super.isAllowed(innerBody, fixture);
+        }
+      };
+    }
+    return new DetectFilter<>(true, true, new BodyOwnerFilter(body));
+  }
+
   private Collection<Body> findInContactBodies(FindInContactBodies action, Agent agent)
       throws IllegalActionException {
-    if (action.body() instanceof MultipartBody multipartBody) {
-      return multipartBody.getBodies().stream()
-          .map(b -> world.getInContactBodies(b, false))
-          .flatMap(Collection::stream)
-          .filter(b -> !multipartBody.getBodies().contains(b)
-              && b.getUserData() != null
-              && b.getUserData() instanceof Body)
-          .map(b -> (Body) b.getUserData())
-          .collect(Collectors.toList());
+    if (action.body() instanceof MultipartBody) {
+      Set<Body> inContactBodies = contacts.get(action.body());
+      return inContactBodies == null ? List.of() : List.copyOf(inContactBodies);
     }
     throw new IllegalActionException(
         action,
@@ -302,17 +482,67 @@ public class Dyn4JEngine extends AbstractEngine {
     return bodies;
   }
 
+  @Override
+  protected void innerReset() {
+    world.removeAllBodiesAndJoints();
+    contacts.clear();
+    atRestTimes.clear();
+    sleepingBodies.clear();
+    detectFilters.clear();
+    raycastCandidates.clear();
+    geometryVersion = geometryVersion + 1;
+  }
+
+  private boolean isAtRest(MultipartBody multipartBody) {
+    Settings settings = world.getSettings();
+    for (org.dyn4j.dynamics.Body innerBody : multipartBody.getBodies()) {
+      if (innerBody.isAtRest()) {
+        continue;
+      }
+      if (innerBody.getLinearVelocity().getMagnitudeSquared()
+          > settings.getMaximumAtRestLinearVelocitySquared()) {
+        return false;
+      }
+      // the rotation of the voxel central mass is not constrained by its joints: it is ignored for detecting rest
+      boolean rotationFree = multipartBody instanceof Voxel voxel && voxel.isCentralMass(innerBody);
+      if (!rotationFree
+          && Math.abs(innerBody.getAngularVelocity()) > settings.getMaximumAtRestAngularVelocity()) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private boolean isSleeping(MultipartBody multipartBody) {
+    for (org.dyn4j.dynamics.Body innerBody : multipartBody.getBodies()) {
+      if (!innerBody.isAtRest()) {
+        return false;
+      }
+    }
+    return true;
+  }
+
   @Override
   protected double innerTick() {
     // control rotational joint
     bodies.forEach(b -> {
       if (b instanceof Actuable actuable) {
-        actuable.actuate(t(), t() - configuration.innerSettings().getStepFrequency());
+        actuable.actuate(t(), t() - world.getSettings().getStepFrequency());
       }
     });
     // tick
+    contacts.values().forEach(Set::clear);
     world.step(1);
-    return t() + configuration.innerSettings().getStepFrequency();
+    geometryVersion = geometryVersion + 1;
+    bodies.forEach(b -> {
+      if (b instanceof Voxel voxel) {
+        voxel.invalidate();
+      }
+    });
+    if (Double.isFinite(configuration.quiescenceTime())) {
+      sleep();
+    }
+    return t() + world.getSettings().getStepFrequency();
   }
 
   @Override
@@ -322,6 +552,7 @@ public class Dyn4JEngine extends AbstractEngine {
     registerActionSolver(TranslateBody.class, this::translateBody);
     registerActionSolver(RotateBody.class, this::rotateBody);
     registerActionSolver(CreateVoxel.class, this::createVoxel);
+    registerActionSolver(CreateVoxelGrid.class, this::createVoxelGrid);
     registerActionSolver(CreateRotationalJoint.class, this::createRotationalJoint);
     registerActionSolver(CreateLink.class, this::createLink);
     registerActionSolver(RemoveLink.class, this::removeLink);
@@ -335,6 +566,9 @@ public class Dyn4JEngine extends AbstractEngine {
   }
 
   private Body removeBody(RemoveBody action, Agent agent) throws IllegalActionException {
+    if (action.body() instanceof Voxel voxel && voxel.isSharingVertexes()) {
+      throw new IllegalActionException(action, "Cannot remove a voxel sharing its vertexes");
+    }
     // detach
     if (action.body() instanceof Anchorable anchorable) {
       perform(new DetachAllAnchorsFromAnchorable(anchorable), agent);
@@ -344,6 +578,14 @@ public class Dyn4JEngine extends AbstractEngine {
       multipartBody.getJoints().forEach(world::removeJoint);
       multipartBody.getBodies().forEach(world::removeBody);
       bodies.remove(action.body());
+      contacts.remove(action.body());
+      contacts.values().forEach(s -> s.remove(action.body()));
+      atRestTimes.remove(action.body());
+      sleepingBodies.remove(action.body());
+      detectFilters.remove(action.body());
+      raycastCandidates.remove(action.body());
+      invalidateAgentGeometry(action.body());
+      geometryVersion = geometryVersion + 1;
       return action.body();
     }
     throw new IllegalActionException(
@@ -352,6 +594,66 @@ public class Dyn4JEngine extends AbstractEngine {
             "Unsupported body type %s", action.body().getClass().getSimpleName()));
   }
 
+  private void sleep() {
+    // update the time since when each body is at rest
+    sleepingBodies.clear();
+    for (Body body : bodies) {
+      if (body instanceof MultipartBody multipartBody && !(body instanceof UnmovableBody)) {
+        if (isAtRest(multipartBody)) {
+          atRestTimes.merge(body, world.getSettings().getStepFrequency(), Double::sum);
+          if (isSleeping(multipartBody)) {
+            sleepingBodies.add(body);
+          }
+        } else {
+          atRestTimes.remove(body);
+        }
+      }
+    }
+    // put to sleep groups of bodies in contact or linked, if all of them have been at rest for long enough, as the
+    // world would wake a sleeping body in contact with an awake one
+    visitedBodies.clear();
+    for (Map.Entry<Body, Double> entry : atRestTimes.entrySet()) {
+      if (entry.getValue() < configuration.quiescenceTime()
+          || visitedBodies.contains(entry.getKey())
+          || sleepingBodies.contains(entry.getKey())) {
+        continue;
+      }
+      bodyGroup.clear();
+      bodiesToVisit.clear();
+      boolean groupAtRest = true;
+      bodiesToVisit.add(entry.getKey());
+      visitedBodies.add(entry.getKey());
+      while (!bodiesToVisit.isEmpty()) {
+        Body body = bodiesToVisit.poll();
+        if (body instanceof UnmovableBody) {
+          continue;
+        }
+        bodyGroup.add(body);
+        groupAtRest = groupAtRest && atRestTimes.getOrDefault(body, 0d) >= configuration.quiescenceTime();
+        for (Body neighbor : contacts.getOrDefault(body, Set.of())) {
+          if (visitedBodies.add(neighbor)) {
+            bodiesToVisit.add(neighbor);
+          }
+        }
+        if (body instanceof Anchorable anchorable) {
+          for (Body neighbor : anchorable.attachedAnchorables()) {
+            if (visitedBodies.add(neighbor)) {
+              bodiesToVisit.add(neighbor);
+            }
+          }
+        }
+      }
+      if (groupAtRest) {
+        for (Body body : bodyGroup) {
+          if (body instanceof MultipartBody multipartBody) {
+            multipartBody.getBodies().forEach(b -> b.setAtRest(true));
+            sleepingBodies.add(body);
+          }
+        }
+      }
+    }
+  }
+
   private Anchor.Link removeLink(RemoveLink action, Agent agent) throws IllegalActionException {
     if (action.link().source() instanceof BodyAnchor srcAnchor) {
       if (action.link().destination() instanceof BodyAnchor dstAnchor) {
@@ -373,10 +675,16 @@ public class Dyn4JEngine extends AbstractEngine {
 
   private Body rotateBody(RotateBody action, Agent agent) throws IllegalActionException {
     if (action.body() instanceof MultipartBody multipartBody) {
-      multipartBody
-          .getBodies()
-          .forEach(b -> b.rotate(
-              action.angle(), action.point().x(), action.point().y()));
+      multipartBody.getBodies().forEach(b -> {
+        b.rotate(action.angle(), action.point().x(), action.point().y());
+        b.setAtRest(false);
+      });
+      atRestTimes.remove(action.body());
+      if (multipartBody instanceof Voxel voxel) {
+        voxel.invalidate();
+      }
+      invalidateAgentGeometry(action.body());
+      geometryVersion = geometryVersion + 1;
       return action.body();
     }
     throw new IllegalActionException(
@@ -386,21 +694,60 @@ public class Dyn4JEngine extends AbstractEngine {
   }
 
   private Double senseDistanceToBody(SenseDistanceToBody action, Agent agent) {
-    Ray ray = new Ray(
-        Utils.point(action.body().poly().center()),
-        action.direction() + action.body().angle());
-    List<RaycastResult<org.dyn4j.dynamics.Body, BodyFixture>> results = world.raycast(
-        ray, action.distanceRange(), new DetectFilter<>(true, true, new BodyOwnerFilter(action.body())));
-    return results.stream()
-        .mapToDouble(r -> r.getRaycast().getDistance())
-        .min()
-        .orElse(action.distanceRange());
+    Point center = action.body().poly().center();
+    double range = action.distanceRange();
+    // broadphase candidates are shared among all the rays of the same body, until the geometry changes
+    RaycastCandidates candidates = raycastCandidates.get(action.body());
+    if (candidates == null || candidates.geometryVersion() != geometryVersion || candidates.range() < range) {
+      candidates = new RaycastCandidates(
+          geometryVersion,
+          range,
+          world.detect(
+              new AABB(Utils.point(center), range),
+              detectFilters.computeIfAbsent(action.body(), this::detectFilter)));
+      raycastCandidates.put(action.body(), candidates);
+    }
+    // narrowphase, keeping only the closest hit
+    rayStart.set(center.x(), center.y());
+    double angle = action.direction() + action.body().angle();
+    rayDirection.set(Math.cos(angle), Math.sin(angle));
+    rayDirection.normalize();
+    ray.setStart(rayStart);
+    ray.setDirection(rayDirection);
+    RaycastDetector raycastDetector = world.getRaycastDetector();
+    double minDistance = range;
+    for (DetectResult<org.dyn4j.dynamics.Body, BodyFixture> result : candidates.results()) {
+      if (raycastDetector.raycast(
+              ray,
+              range,
+              result.getFixture().getShape(),
+              result.getBody().getTransform(),
+              raycast)
+          && raycast.getDistance() < minDistance) {
+        minDistance = raycast.getDistance();
+      }
+    }
+    return minDistance;
+  }
+
+  @Override
+  protected Collection<Body> sleepingBodies() {
+    return sleepingBodies;
   }
 
   private Body translateBody(TranslateBody action, Agent agent) throws IllegalActionException {
     Point t = new Point(action.translation().x(), action.translation().y());
     if (action.body() instanceof MultipartBody multipartBody) {
-      multipartBody.getBodies().forEach(b -> b.translate(t.x(), t.y()));
+      multipartBody.getBodies().forEach(b -> {
+        b.translate(t.x(), t.y());
+        b.setAtRest(false);
+      });
+      atRestTimes.remove(action.body());
+      if (multipartBody instanceof Voxel voxel) {
+        voxel.invalidate();
+      }
+      invalidateAgentGeometry(action.body());
+      geometryVersion = geometryVersion + 1;
       return action.body();
     }
     throw new IllegalActionException(
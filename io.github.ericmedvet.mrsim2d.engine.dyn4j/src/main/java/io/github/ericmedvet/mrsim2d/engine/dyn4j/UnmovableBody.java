@@ -26,6 +26,7 @@ import io.github.ericmedvet.mrsim2d.core.geometry.Point;
 import io.github.ericmedvet.mrsim2d.core.geometry.Poly;
 import io.github.ericmedvet.mrsim2d.core.geometry.Segment;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import org.dyn4j.dynamics.AbstractPhysicsBody;
 import org.dyn4j.dynamics.Body;
 import org.dyn4j.dynamics.joint.Joint;
@@ -34,6 +35,11 @@ import org.dyn4j.geometry.MassType;
 
 public class UnmovableBody implements io.github.ericmedvet.mrsim2d.core.bodies.UnmovableBody, MultipartBody {
 
+  private static final int PARTS_CACHE_SIZE = 64;
+  // static polies (e.g., terrains) are often the same across simulations: their decompositions are shared, together
+  // with their convex shapes, which are never transformed, as bodies are moved through their transforms
+  private static final Map<List<Point>, List<Pair<Poly, Convex>>> PARTS_CACHE = new ConcurrentHashMap<>();
+
   private final Poly poly;
   private final List<Body> bodies;
   private final List<Anchor> anchors;
@@ -43,14 +49,12 @@ public class UnmovableBody implements io.github.ericmedvet.mrsim2d.core.bodies.U
   public UnmovableBody(
       Poly poly, double anchorsDensity, double friction, double restitution, double anchorSideDistance) {
     this.poly = poly;
-    List<Poly> parts = (poly.vertexes().length > 3) ? Utils.decompose(poly) : List.of(poly);
-    List<Pair<Body, Poly>> bodyPairs = parts.stream()
-        .map(c -> {
-          Convex convex = Utils.poly(c);
+    List<Pair<Body, Poly>> bodyPairs = parts(poly).stream()
+        .map(part -> {
           Body body = new Body();
-          body.addFixture(convex, 1d, friction, restitution);
+          body.addFixture(part.second(), 1d, friction, restitution);
           body.setMass(MassType.INFINITE);
-          return new Pair<>(body, c);
+          return new Pair<>(body, part.first());
         })
         .toList();
     bodies = bodyPairs.stream().map(Pair::first).toList();
@@ -83,6 +87,23 @@ public class UnmovableBody implements io.github.ericmedvet.mrsim2d.core.bodies.U
         .toArray(Point[]::new));
   }
 
+  private static List<Pair<Poly, Convex>> parts(Poly poly) {
+    List<Point> key = List.of(poly.vertexes());
+    List<Pair<Poly, Convex>> parts = PARTS_CACHE.get(key);
+    if (parts == null) {
+      if (PARTS_CACHE.size() >= PARTS_CACHE_SIZE) {
+        PARTS_CACHE.clear();
+      }
+      parts = PARTS_CACHE.computeIfAbsent(key, k -> {
+        List<Poly> polies = (poly.vertexes().length > 3) ? Utils.decompose(poly) : List.of(poly);
+        return polies.stream()
+            .<Pair<Poly, Convex>>map(c -> new Pair<>(c, Utils.poly(c)))
+            .toList();
+      });
+    }
+    return parts;
+  }
+
   @Override
   public List<Anchor> anchors() {
     return anchors;
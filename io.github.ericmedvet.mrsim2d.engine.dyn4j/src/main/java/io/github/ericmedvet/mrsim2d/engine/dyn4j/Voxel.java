@@ -21,18 +21,23 @@
 package io.github.ericmedvet.mrsim2d.engine.dyn4j;
 
 import io.github.ericmedvet.jnb.datastructure.DoubleRange;
+import io.github.ericmedvet.jnb.datastructure.Grid;
 import io.github.ericmedvet.mrsim2d.core.bodies.Anchor;
 import io.github.ericmedvet.mrsim2d.core.geometry.Point;
 import io.github.ericmedvet.mrsim2d.core.geometry.Poly;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.EnumMap;
 import java.util.EnumSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.function.DoubleFunction;
 import java.util.stream.Collectors;
+import java.util.stream.DoubleStream;
 import java.util.stream.Stream;
 import org.dyn4j.collision.Filter;
 import org.dyn4j.dynamics.Body;
@@ -40,6 +45,7 @@ import org.dyn4j.dynamics.joint.DistanceJoint;
 import org.dyn4j.dynamics.joint.Joint;
 import org.dyn4j.geometry.Circle;
 import org.dyn4j.geometry.Convex;
+import org.dyn4j.geometry.Mass;
 import org.dyn4j.geometry.MassType;
 import org.dyn4j.geometry.Vector2;
 
@@ -49,6 +55,16 @@ public class Voxel implements io.github.ericmedvet.mrsim2d.core.bodies.Voxel, Mu
   protected static final double SPRING_D = 0.3d;
   private static final double CENTRAL_MASS_RATIO = 0.5d;
   private static final DoubleFunction<Convex> MASS_SHAPE_PROVIDER = l -> new Circle(l / 2d);
+  private static final int PROTOTYPES_SIZE = 64;
+  // voxels built with the same parameters differ only by their owner: their geometry, shapes, masses, and spring
+  // ranges are computed once and then stamped out on new bodies and joints; the least recently used are dropped
+  private static final Map<PrototypeKey, Prototype> PROTOTYPES =
+      Collections.synchronizedMap(new LinkedHashMap<>(PROTOTYPES_SIZE, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<PrototypeKey, Prototype> eldest) {
+          return size() > PROTOTYPES_SIZE;
+        }
+      });
   protected final Map<Vertex, Body> vertexes;
   protected final List<Body> otherBodies;
   protected final Map<Side, List<DistanceJoint<Body>>> sideJoints;
@@ -64,7 +80,21 @@ public class Voxel implements io.github.ericmedvet.mrsim2d.core.bodies.Voxel, Mu
   private final double vertexMassSideLengthRatio;
   private final DoubleRange areaRatioActiveRange;
   private final EnumSet<SpringScaffolding> springScaffoldings;
-  private final Vector2 initialSidesAverageDirection;
+  private final Grid<Body> sharedVertexes;
+  private final Grid.Key key;
+  private final List<Body> ownedVertexes;
+  private final double initialSidesAverageAngle;
+  private final Body[] vertexBodies;
+  private final double[] xs;
+  private final double[] ys;
+  private double centerX;
+  private double centerY;
+  private double area;
+  private double angle;
+  private Point[] points;
+  private Poly poly;
+  private boolean stale;
+  private List<Voxel> vertexSharingVoxels;
 
   public Voxel(
       double sideLength,
@@ -77,6 +107,34 @@ public class Voxel implements io.github.ericmedvet.mrsim2d.core.bodies.Voxel, Mu
       double vertexMassSideLengthRatio,
       DoubleRange areaRatioActiveRange,
       EnumSet<SpringScaffolding> springScaffoldings) {
+    this(
+        sideLength,
+        mass,
+        friction,
+        restitution,
+        softness,
+        linearDamping,
+        angularDamping,
+        vertexMassSideLengthRatio,
+        areaRatioActiveRange,
+        springScaffoldings,
+        null,
+        null);
+  }
+
+  private Voxel(
+      double sideLength,
+      double mass,
+      double friction,
+      double restitution,
+      double softness,
+      double linearDamping,
+      double angularDamping,
+      double vertexMassSideLengthRatio,
+      DoubleRange areaRatioActiveRange,
+      EnumSet<SpringScaffolding> springScaffoldings,
+      Grid<Body> sharedVertexes,
+      Grid.Key key) {
     this.sideLength = sideLength;
     this.mass = mass;
     this.friction = friction;
@@ -86,7 +144,10 @@ public class Voxel implements io.github.ericmedvet.mrsim2d.core.bodies.Voxel, Mu
     this.angularDamping = angularDamping;
     this.vertexMassSideLengthRatio = vertexMassSideLengthRatio;
     this.areaRatioActiveRange = areaRatioActiveRange;
-    this.springScaffoldings = springScaffoldings;
+    this.springScaffoldings = EnumSet.copyOf(springScaffoldings);
+    this.sharedVertexes = sharedVertexes;
+    this.key = key;
+    ownedVertexes = new ArrayList<>();
     vertexes = new EnumMap<>(Vertex.class);
     sideJoints = new EnumMap<>(Side.class);
     otherBodies = new ArrayList<>();
@@ -95,7 +156,13 @@ public class Voxel implements io.github.ericmedvet.mrsim2d.core.bodies.Voxel, Mu
     assemble();
     anchors = vertexes.entrySet().stream()
         .collect(Collectors.toMap(Map.Entry::getKey, e -> new BodyAnchor(e.getValue(), this)));
-    initialSidesAverageDirection = getSidesAverageDirection();
+    vertexBodies = Arrays.stream(Vertex.values()).map(vertexes::get).toArray(Body[]::new);
+    xs = new double[vertexBodies.length];
+    ys = new double[vertexBodies.length];
+    updateVertexCenters();
+    initialSidesAverageAngle = sidesAverageAngle();
+    stale = true;
+    vertexSharingVoxels = List.of(this);
   }
 
   private enum BodyType {
@@ -110,6 +177,172 @@ public class Voxel implements io.github.ericmedvet.mrsim2d.core.bodies.Voxel, Mu
     CENTRAL_CROSS
   }
 
+  // prototypes are shared among engines: positions are immutable points and masses are read as copies
+  private record Prototype(
+      double density,
+      Convex vertexShape,
+      Mass vertexMass,
+      Map<Vertex, Point> vertexCenters,
+      Convex centralShape,
+      Mass centralMass,
+      Point centralCenter,
+      List<SpringPrototype> springPrototypes) {
+
+    @Override
+    public Mass vertexMass() {
+      return vertexMass.copy();
+    }
+
+    @Override
+    public Mass centralMass() {
+      return centralMass == null ? null : centralMass.copy();
+    }
+
+    private static Prototype of(PrototypeKey key) {
+      double sideLength = key.sideLength();
+      // compute densities
+      double massSideLength = sideLength * key.vertexMassSideLengthRatio();
+      double density = (key.mass() * (1d - CENTRAL_MASS_RATIO) / 4d) / (massSideLength * massSideLength);
+      // vertex bodies are placed around the origin
+      Convex vertexShape = MASS_SHAPE_PROVIDER.apply(massSideLength);
+      Mass vertexMass = vertexShape.createMass(density);
+      vertexMass.setType(MassType.NORMAL);
+      // shared vertex bodies are centered on the voxel corners, otherwise they are inside the voxel
+      double d = key.sharingVertexes() ? (sideLength / 2d) : (sideLength / 2d - massSideLength / 2d);
+      Map<Vertex, Point> vertexCenters = new EnumMap<>(Vertex.class);
+      vertexCenters.put(Vertex.NW, new Point(-d, d));
+      vertexCenters.put(Vertex.NE, new Point(d, d));
+      vertexCenters.put(Vertex.SE, new Point(d, -d));
+      vertexCenters.put(Vertex.SW, new Point(-d, -d));
+      // compute spring ranges
+      DoubleRange areaRatioActiveRange = key.areaRatioActiveRange();
+      DoubleRange activeSideRange = new DoubleRange(
+          Math.sqrt(sideLength * sideLength * areaRatioActiveRange.min()),
+          Math.sqrt(sideLength * sideLength * areaRatioActiveRange.max()));
+      double sideGap = key.sharingVertexes() ? massSideLength : (2d * massSideLength);
+      SpringRange sideParallelActiveRange = new SpringRange(
+          activeSideRange.min() - sideGap, sideLength - sideGap, activeSideRange.max() - sideGap);
+      SpringRange sideCrossActiveRange = new SpringRange(
+          Math.sqrt(massSideLength * massSideLength
+              + sideParallelActiveRange.min * sideParallelActiveRange.min),
+          Math.sqrt(massSideLength * massSideLength
+              + sideParallelActiveRange.rest * sideParallelActiveRange.rest),
+          Math.sqrt(massSideLength * massSideLength
+              + sideParallelActiveRange.max * sideParallelActiveRange.max));
+      double crossGap = key.sharingVertexes() ? 0d : massSideLength;
+      SpringRange centralCrossActiveRange = new SpringRange(
+          (activeSideRange.min() - crossGap) * Math.sqrt(2d),
+          (sideLength - crossGap) * Math.sqrt(2d),
+          (activeSideRange.max() - crossGap) * Math.sqrt(2d));
+      // compute springs, in the order in which joints are added to the world
+      double h = massSideLength / 2d;
+      List<SpringPrototype> sideInternalSprings = List.of();
+      if (key.springScaffoldings().contains(SpringScaffolding.SIDE_INTERNAL)) {
+        sideInternalSprings = List.of(
+            spring(vertexCenters, Side.N, Vertex.NW, h, -h, Vertex.NE, -h, -h, sideParallelActiveRange),
+            spring(vertexCenters, Side.E, Vertex.NE, -h, -h, Vertex.SE, -h, h, sideParallelActiveRange),
+            spring(vertexCenters, Side.S, Vertex.SE, -h, h, Vertex.SW, h, h, sideParallelActiveRange),
+            spring(vertexCenters, Side.W, Vertex.SW, h, h, Vertex.NW, h, -h, sideParallelActiveRange));
+      }
+      List<SpringPrototype> sideExternalSprings = List.of();
+      if (key.springScaffoldings().contains(SpringScaffolding.SIDE_EXTERNAL)) {
+        sideExternalSprings = List.of(
+            spring(vertexCenters, Side.N, Vertex.NW, h, h, Vertex.NE, -h, h, sideParallelActiveRange),
+            spring(vertexCenters, Side.E, Vertex.NE, h, -h, Vertex.SE, h, h, sideParallelActiveRange),
+            spring(vertexCenters, Side.S, Vertex.SE, -h, -h, Vertex.SW, h, -h, sideParallelActiveRange),
+            spring(vertexCenters, Side.W, Vertex.SW, -h, h, Vertex.NW, -h, -h, sideParallelActiveRange));
+      }
+      List<SpringPrototype> sideCrossSprings = List.of();
+      if (key.springScaffoldings().contains(SpringScaffolding.SIDE_CROSS)) {
+        sideCrossSprings = List.of(
+            spring(vertexCenters, Side.N, Vertex.NW, h, h, Vertex.NE, -h, -h, sideCrossActiveRange),
+            spring(vertexCenters, Side.N, Vertex.NW, h, -h, Vertex.NE, -h, h, sideCrossActiveRange),
+            spring(vertexCenters, Side.E, Vertex.NE, h, -h, Vertex.SE, -h, h, sideCrossActiveRange),
+            spring(vertexCenters, Side.E, Vertex.NE, -h, -h, Vertex.SE, h, h, sideCrossActiveRange),
+            spring(vertexCenters, Side.S, Vertex.SE, -h, h, Vertex.SW, h, -h, sideCrossActiveRange),
+            spring(vertexCenters, Side.S, Vertex.SE, -h, -h, Vertex.SW, h, h, sideCrossActiveRange),
+            spring(vertexCenters, Side.W, Vertex.SW, -h, h, Vertex.NW, h, -h, sideCrossActiveRange),
+            spring(vertexCenters, Side.W, Vertex.SW, h, h, Vertex.NW, -h, -h, sideCrossActiveRange));
+      }
+      List<SpringPrototype> springPrototypes = new ArrayList<>();
+      for (Side side : List.of(Side.N, Side.E, Side.S, Side.W)) {
+        Stream.of(sideInternalSprings, sideExternalSprings, sideCrossSprings)
+            .flatMap(List::stream)
+            .filter(sp -> sp.side() == side)
+            .forEach(springPrototypes::add);
+      }
+      if (key.springScaffoldings().contains(SpringScaffolding.CENTRAL_CROSS)) {
+        springPrototypes.add(
+            spring(vertexCenters, null, Vertex.NW, 0, 0, Vertex.SE, 0, 0, centralCrossActiveRange));
+        springPrototypes.add(
+            spring(vertexCenters, null, Vertex.NE, 0, 0, Vertex.SW, 0, 0, centralCrossActiveRange));
+      }
+      // central mass, connected to all vertexes
+      Convex centralShape = null;
+      Mass centralMass = null;
+      Point centralCenter = null;
+      //noinspection ConstantConditions
+      if (CENTRAL_MASS_RATIO > 0) {
+        centralShape = new Circle(activeSideRange.min() / 2d);
+        centralMass = centralShape.createMass(key.mass() * CENTRAL_MASS_RATIO);
+        centralMass.setType(MassType.NORMAL);
+        centralCenter = key.sharingVertexes() ? new Point(0d, 0d) : new Point(sideLength / 2d, sideLength / 2d);
+        SpringRange centralActiveRange = new SpringRange(
+            centralCrossActiveRange.min / 2d,
+            centralCrossActiveRange.rest / 2d,
+            centralCrossActiveRange.max / 2);
+        for (Vertex vertex : vertexCenters.keySet()) {
+          springPrototypes.add(new SpringPrototype(
+              null, null, vertex, centralCenter, vertexCenters.get(vertex), centralActiveRange));
+        }
+      }
+      return new Prototype(
+          density,
+          vertexShape,
+          vertexMass,
+          Collections.unmodifiableMap(vertexCenters),
+          centralShape,
+          centralMass,
+          centralCenter,
+          Collections.unmodifiableList(springPrototypes));
+    }
+
+    private static SpringPrototype spring(
+        Map<Vertex, Point> vertexCenters,
+        Side side,
+        Vertex vertex1,
+        double dx1,
+        double dy1,
+        Vertex vertex2,
+        double dx2,
+        double dy2,
+        SpringRange range) {
+      return new SpringPrototype(
+          side,
+          vertex1,
+          vertex2,
+          vertexCenters.get(vertex1).sum(new Point(dx1, dy1)),
+          vertexCenters.get(vertex2).sum(new Point(dx2, dy2)),
+          range);
+    }
+  }
+
+  private record PrototypeKey(
+      double sideLength,
+      double mass,
+      double vertexMassSideLengthRatio,
+      DoubleRange areaRatioActiveRange,
+      Set<SpringScaffolding> springScaffoldings,
+      boolean sharingVertexes) {
+    private PrototypeKey {
+      springScaffoldings = Set.copyOf(springScaffoldings);
+    }
+  }
+
+  // a null vertex stands for the central mass, a null side for a central spring
+  private record SpringPrototype(
+      Side side, Vertex vertex1, Vertex vertex2, Point anchor1, Point anchor2, SpringRange range) {}
+
   private record SpringRange(double min, double rest, double max) {
 
     public SpringRange {
@@ -122,40 +355,39 @@ public class Voxel implements io.github.ericmedvet.mrsim2d.core.bodies.Voxel, Mu
   private static class VoxelFilter extends BodyOwnerFilter {
 
     private final BodyType bodyType;
+    private final Object group;
 
-    public VoxelFilter(io.github.ericmedvet.mrsim2d.core.bodies.Body owner, BodyType bodyType) {
+    public VoxelFilter(io.github.ericmedvet.mrsim2d.core.bodies.Body owner, BodyType bodyType, Object group) {
       super(owner);
       this.bodyType = bodyType;
+      this.group = group;
     }
 
     @Override
     public boolean isAllowed(Filter otherFilter) {
       if (otherFilter instanceof VoxelFilter otherVoxelFilter) {
-        return getOwner() != otherVoxelFilter.getOwner() || bodyType.equals(otherVoxelFilter.bodyType);
+        return group != otherVoxelFilter.group || bodyType.equals(otherVoxelFilter.bodyType);
       }
       return true;
     }
   }
 
-  protected void actuate(EnumMap<Side, Double> sideValues) {
+  protected void actuate(double nValue, double eValue, double sValue, double wValue) {
     // apply on sides
-    for (Map.Entry<Side, Double> sideEntry : sideValues.entrySet()) {
-      double v = DoubleRange.SYMMETRIC_UNIT.clip(sideEntry.getValue());
-      for (DistanceJoint<Body> joint : sideJoints.get(sideEntry.getKey())) {
-        Voxel.SpringRange range = (SpringRange) joint.getUserData();
-        if (v >= 0) { // shrink
-          joint.setRestDistance(range.rest - (range.rest - range.min) * v);
-        } else if (v < 0) { // expand
-          joint.setRestDistance(range.rest + (range.max - range.rest) * -v);
-        }
-      }
-    }
-    // apply on central
-    double v = sideValues.values().stream()
-        .mapToDouble(d -> DoubleRange.SYMMETRIC_UNIT.clip(d))
-        .average()
-        .orElse(0d);
-    for (DistanceJoint<Body> joint : centralJoints) {
+    double n = DoubleRange.SYMMETRIC_UNIT.clip(nValue);
+    double e = DoubleRange.SYMMETRIC_UNIT.clip(eValue);
+    double s = DoubleRange.SYMMETRIC_UNIT.clip(sValue);
+    double w = DoubleRange.SYMMETRIC_UNIT.clip(wValue);
+    actuate(sideJoints.get(Side.N), n);
+    actuate(sideJoints.get(Side.E), e);
+    actuate(sideJoints.get(Side.W), w);
+    actuate(sideJoints.get(Side.S), s);
+    // apply on central, averaging in the sides order
+    actuate(centralJoints, DoubleStream.of(n, e, w, s).average().orElse(0d));
+  }
+
+  private static void actuate(Collection<DistanceJoint<Body>> joints, double v) {
+    for (DistanceJoint<Body> joint : joints) {
       Voxel.SpringRange range = (SpringRange) joint.getUserData();
       if (v >= 0) { // shrink
         joint.setRestDistance(range.rest - (range.rest - range.min) * v);
@@ -182,12 +414,15 @@ public class Voxel implements io.github.ericmedvet.mrsim2d.core.bodies.Voxel, Mu
 
   @Override
   public Point vertex(Vertex vertex) {
-    List<Point> centers = vertexes.values().stream()
-        .map(b -> Utils.point(b.getWorldCenter()))
-        .toList();
-    Point c = Point.average(centers.toArray(Point[]::new));
-    double d = sideLength * vertexMassSideLengthRatio / 2d * Math.sqrt(2d);
-    return enlongForm(c, Utils.point(vertexes.get(vertex).getWorldCenter()), d);
+    return points()[vertex.ordinal()];
+  }
+
+  @Override
+  public double sideLength(Side side) {
+    refresh();
+    int i1 = side.getVertex1().ordinal();
+    int i2 = side.getVertex2().ordinal();
+    return Math.sqrt((xs[i1] - xs[i2]) * (xs[i1] - xs[i2]) + (ys[i1] - ys[i2]) * (ys[i1] - ys[i2]));
   }
 
   @SuppressWarnings({"unchecked", "rawtypes"})
@@ -198,8 +433,14 @@ public class Voxel implements io.github.ericmedvet.mrsim2d.core.bodies.Voxel, Mu
 
   @Override
   public double angle() {
-    Vector2 currentSidesAverageDirection = getSidesAverageDirection();
-    return -currentSidesAverageDirection.getAngleBetween(initialSidesAverageDirection);
+    refresh();
+    return angle;
+  }
+
+  @Override
+  public double areaRatio() {
+    refresh();
+    return area / restArea();
   }
 
   @Override
@@ -220,230 +461,268 @@ public class Voxel implements io.github.ericmedvet.mrsim2d.core.bodies.Voxel, Mu
 
   @Override
   public Poly poly() {
-    List<Point> centers = vertexes.values().stream()
-        .map(b -> Utils.point(b.getWorldCenter()))
-        .toList();
-    Point c = Point.average(centers.toArray(Point[]::new));
-    double d = sideLength * vertexMassSideLengthRatio / 2d * Math.sqrt(2d);
-    return new Poly(centers.stream().map(vc -> enlongForm(c, vc, d)).toArray(Point[]::new));
+    Point[] points = points();
+    if (poly == null) {
+      poly = new Poly(points);
+    }
+    return poly;
   }
 
-  protected void assemble() {
-    // compute densities
-    double massSideLength = sideLength * vertexMassSideLengthRatio;
-    double density = (mass * (1d - CENTRAL_MASS_RATIO) / 4d) / (massSideLength * massSideLength);
-    // build bodies
-    vertexes.put(Vertex.NW, new Body()); // 0
-    vertexes.put(Vertex.NE, new Body()); // 1
-    vertexes.put(Vertex.SE, new Body()); // 2
-    vertexes.put(Vertex.SW, new Body()); // 3
-    vertexes.values()
-        .forEach(v -> v.addFixture(MASS_SHAPE_PROVIDER.apply(massSideLength), density, friction, restitution));
-    vertexes.get(Vertex.NW)
-        .translate(-(sideLength / 2d - massSideLength / 2d), (sideLength / 2d - massSideLength / 2d));
-    vertexes.get(Vertex.NE)
-        .translate((sideLength / 2d - massSideLength / 2d), (sideLength / 2d - massSideLength / 2d));
-    vertexes.get(Vertex.SE)
-        .translate((sideLength / 2d - massSideLength / 2d), -(sideLength / 2d - massSideLength / 2d));
-    vertexes.get(Vertex.SW)
-        .translate(-(sideLength / 2d - massSideLength / 2d), -(sideLength / 2d - massSideLength / 2d));
-    for (Body body : vertexes.values()) {
-      body.setMass(MassType.NORMAL);
-      body.setLinearDamping(linearDamping);
-      body.setAngularDamping(angularDamping);
+  public Point center() {
+    refresh();
+    return new Point(centerX, centerY);
+  }
+
+  protected void invalidate() {
+    for (Voxel voxel : vertexSharingVoxels) {
+      voxel.stale = true;
     }
-    // build distance joints constraints
-    DoubleRange activeSideRange = new DoubleRange(
-        Math.sqrt(sideLength * sideLength * areaRatioActiveRange.min()),
-        Math.sqrt(sideLength * sideLength * areaRatioActiveRange.max()));
-    SpringRange sideParallelActiveRange = new SpringRange(
-        activeSideRange.min() - 2d * massSideLength,
-        sideLength - 2d * massSideLength,
-        activeSideRange.max() - 2d * massSideLength);
-    SpringRange sideCrossActiveRange = new SpringRange(
-        Math.sqrt(massSideLength * massSideLength + sideParallelActiveRange.min * sideParallelActiveRange.min),
-        Math.sqrt(
-            massSideLength * massSideLength + sideParallelActiveRange.rest * sideParallelActiveRange.rest),
-        Math.sqrt(massSideLength * massSideLength + sideParallelActiveRange.max * sideParallelActiveRange.max));
-    SpringRange centralCrossActiveRange = new SpringRange(
-        (activeSideRange.min() - massSideLength) * Math.sqrt(2d),
-        (sideLength - massSideLength) * Math.sqrt(2d),
-        (activeSideRange.max() - massSideLength) * Math.sqrt(2d));
-    // build distance joints
-    if (springScaffoldings.contains(SpringScaffolding.SIDE_INTERNAL)) {
-      DistanceJoint<Body> nj = new DistanceJoint<>(
-          vertexes.get(Vertex.NW),
-          vertexes.get(Vertex.NE),
-          vertexes.get(Vertex.NW).getWorldCenter().copy().add(massSideLength / 2d, -massSideLength / 2d),
-          vertexes.get(Vertex.NE).getWorldCenter().copy().add(-massSideLength / 2d, -massSideLength / 2d));
-      DistanceJoint<Body> ej = new DistanceJoint<>(
-          vertexes.get(Vertex.NE),
-          vertexes.get(Vertex.SE),
-          vertexes.get(Vertex.NE).getWorldCenter().copy().add(-massSideLength / 2d, -massSideLength / 2d),
-          vertexes.get(Vertex.SE).getWorldCenter().copy().add(-massSideLength / 2d, massSideLength / 2d));
-      DistanceJoint<Body> sj = new DistanceJoint<>(
-          vertexes.get(Vertex.SE),
-          vertexes.get(Vertex.SW),
-          vertexes.get(Vertex.SE).getWorldCenter().copy().add(-massSideLength / 2d, massSideLength / 2d),
-          vertexes.get(Vertex.SW).getWorldCenter().copy().add(massSideLength / 2d, massSideLength / 2d));
-      DistanceJoint<Body> wj = new DistanceJoint<>(
-          vertexes.get(Vertex.SW),
-          vertexes.get(Vertex.NW),
-          vertexes.get(Vertex.SW).getWorldCenter().copy().add(massSideLength / 2d, massSideLength / 2d),
-          vertexes.get(Vertex.NW).getWorldCenter().copy().add(massSideLength / 2d, -massSideLength / 2d));
-      sideJoints.get(Side.N).add(nj);
-      sideJoints.get(Side.E).add(ej);
-      sideJoints.get(Side.S).add(sj);
-      sideJoints.get(Side.W).add(wj);
-      for (DistanceJoint<Body> joint : List.of(nj, ej, sj, wj)) {
-        joint.setUserData(sideParallelActiveRange);
+  }
+
+  protected boolean hasBody(Body body) {
+    return vertexes.containsValue(body) || otherBodies.contains(body);
+  }
+
+  protected boolean isCentralMass(Body body) {
+    return !otherBodies.isEmpty() && otherBodies.getFirst() == body;
+  }
+
+  protected boolean isSharingVertexes() {
+    return sharedVertexes != null;
+  }
+
+  private Point[] points() {
+    refresh();
+    if (points == null) {
+      points = new Point[xs.length];
+      for (int i = 0; i < xs.length; i = i + 1) {
+        points[i] = new Point(xs[i], ys[i]);
       }
     }
-    if (springScaffoldings.contains(SpringScaffolding.SIDE_EXTERNAL)) {
-      DistanceJoint<Body> nj = new DistanceJoint<>(
-          vertexes.get(Vertex.NW),
-          vertexes.get(Vertex.NE),
-          vertexes.get(Vertex.NW).getWorldCenter().copy().add(massSideLength / 2d, massSideLength / 2d),
-          vertexes.get(Vertex.NE).getWorldCenter().copy().add(-massSideLength / 2d, massSideLength / 2d));
-      DistanceJoint<Body> ej = new DistanceJoint<>(
-          vertexes.get(Vertex.NE),
-          vertexes.get(Vertex.SE),
-          vertexes.get(Vertex.NE).getWorldCenter().copy().add(massSideLength / 2d, -massSideLength / 2d),
-          vertexes.get(Vertex.SE).getWorldCenter().copy().add(massSideLength / 2d, massSideLength / 2d));
-      DistanceJoint<Body> sj = new DistanceJoint<>(
-          vertexes.get(Vertex.SE),
-          vertexes.get(Vertex.SW),
-          vertexes.get(Vertex.SE).getWorldCenter().copy().add(-massSideLength / 2d, -massSideLength / 2d),
-          vertexes.get(Vertex.SW).getWorldCenter().copy().add(massSideLength / 2d, -massSideLength / 2d));
-      DistanceJoint<Body> wj = new DistanceJoint<>(
-          vertexes.get(Vertex.SW),
-          vertexes.get(Vertex.NW),
-          vertexes.get(Vertex.SW).getWorldCenter().copy().add(-massSideLength / 2d, massSideLength / 2d),
-          vertexes.get(Vertex.NW).getWorldCenter().copy().add(-massSideLength / 2d, -massSideLength / 2d));
-      sideJoints.get(Side.N).add(nj);
-      sideJoints.get(Side.E).add(ej);
-      sideJoints.get(Side.S).add(sj);
-      sideJoints.get(Side.W).add(wj);
-      for (DistanceJoint<Body> joint : List.of(nj, ej, sj, wj)) {
-        joint.setUserData(sideParallelActiveRange);
-      }
+    return points;
+  }
+
+  private void refresh() {
+    if (!stale) {
+      return;
+    }
+    updateVertexCenters();
+    double cX = 0d;
+    double cY = 0d;
+    for (int i = 0; i < xs.length; i = i + 1) {
+      cX = cX + xs[i];
+      cY = cY + ys[i];
     }
-    if (springScaffoldings.contains(SpringScaffolding.SIDE_CROSS)) {
-      DistanceJoint<Body> nj1 = new DistanceJoint<>(
-          vertexes.get(Vertex.NW),
-          vertexes.get(Vertex.NE),
-          vertexes.get(Vertex.NW).getWorldCenter().copy().add(massSideLength / 2d, massSideLength / 2d),
-          vertexes.get(Vertex.NE).getWorldCenter().copy().add(-massSideLength / 2d, -massSideLength / 2d));
-      DistanceJoint<Body> nj2 = new DistanceJoint<>(
-          vertexes.get(Vertex.NW),
-          vertexes.get(Vertex.NE),
-          vertexes.get(Vertex.NW).getWorldCenter().copy().add(massSideLength / 2d, -massSideLength / 2d),
-          vertexes.get(Vertex.NE).getWorldCenter().copy().add(-massSideLength / 2d, massSideLength / 2d));
-      DistanceJoint<Body> ej1 = new DistanceJoint<>(
-          vertexes.get(Vertex.NE),
-          vertexes.get(Vertex.SE),
-          vertexes.get(Vertex.NE).getWorldCenter().copy().add(massSideLength / 2d, -massSideLength / 2d),
-          vertexes.get(Vertex.SE).getWorldCenter().copy().add(-massSideLength / 2d, massSideLength / 2d));
-      DistanceJoint<Body> ej2 = new DistanceJoint<>(
-          vertexes.get(Vertex.NE),
-          vertexes.get(Vertex.SE),
-          vertexes.get(Vertex.NE).getWorldCenter().copy().add(-massSideLength / 2d, -massSideLength / 2d),
-          vertexes.get(Vertex.SE).getWorldCenter().copy().add(massSideLength / 2d, massSideLength / 2d));
-      DistanceJoint<Body> sj1 = new DistanceJoint<>(
-          vertexes.get(Vertex.SE),
-          vertexes.get(Vertex.SW),
-          vertexes.get(Vertex.SE).getWorldCenter().copy().add(-massSideLength / 2d, massSideLength / 2d),
-          vertexes.get(Vertex.SW).getWorldCenter().copy().add(massSideLength / 2d, -massSideLength / 2d));
-      DistanceJoint<Body> sj2 = new DistanceJoint<>(
-          vertexes.get(Vertex.SE),
-          vertexes.get(Vertex.SW),
-          vertexes.get(Vertex.SE).getWorldCenter().copy().add(-massSideLength / 2d, -massSideLength / 2d),
-          vertexes.get(Vertex.SW).getWorldCenter().copy().add(massSideLength / 2d, massSideLength / 2d));
-      DistanceJoint<Body> wj1 = new DistanceJoint<>(
-          vertexes.get(Vertex.SW),
-          vertexes.get(Vertex.NW),
-          vertexes.get(Vertex.SW).getWorldCenter().copy().add(-massSideLength / 2d, massSideLength / 2d),
-          vertexes.get(Vertex.NW).getWorldCenter().copy().add(massSideLength / 2d, -massSideLength / 2d));
-      DistanceJoint<Body> wj2 = new DistanceJoint<>(
-          vertexes.get(Vertex.SW),
-          vertexes.get(Vertex.NW),
-          vertexes.get(Vertex.SW).getWorldCenter().copy().add(massSideLength / 2d, massSideLength / 2d),
-          vertexes.get(Vertex.NW).getWorldCenter().copy().add(-massSideLength / 2d, -massSideLength / 2d));
-      sideJoints.get(Side.N).add(nj1);
-      sideJoints.get(Side.N).add(nj2);
-      sideJoints.get(Side.E).add(ej1);
-      sideJoints.get(Side.E).add(ej2);
-      sideJoints.get(Side.S).add(sj1);
-      sideJoints.get(Side.S).add(sj2);
-      sideJoints.get(Side.W).add(wj1);
-      sideJoints.get(Side.W).add(wj2);
-      for (DistanceJoint<Body> joint : List.of(nj1, nj2, ej1, ej2, sj1, sj2, wj1, wj2)) {
-        joint.setUserData(sideCrossActiveRange);
+    cX = cX / xs.length;
+    cY = cY / xs.length;
+    // angle
+    angle = sidesAverageAngle() - initialSidesAverageAngle;
+    if (angle > Math.PI) {
+      angle = angle - 2d * Math.PI;
+    } else if (angle < -Math.PI) {
+      angle = angle + 2d * Math.PI;
+    }
+    // enlong vertexes outwards from the center, unless they are already on the corners
+    if (sharedVertexes == null) {
+      double d = sideLength * vertexMassSideLengthRatio / 2d * Math.sqrt(2d);
+      for (int i = 0; i < vertexBodies.length; i = i + 1) {
+        double a = Math.atan2(ys[i] - cY, xs[i] - cX);
+        xs[i] = xs[i] + Math.cos(a) * d;
+        ys[i] = ys[i] + Math.sin(a) * d;
       }
     }
-    if (springScaffoldings.contains(SpringScaffolding.CENTRAL_CROSS)) {
-      centralJoints.add(new DistanceJoint<>(
-          vertexes.get(Vertex.NW),
-          vertexes.get(Vertex.SE),
-          vertexes.get(Vertex.NW).getWorldCenter(),
-          vertexes.get(Vertex.SE).getWorldCenter()));
-      centralJoints.add(new DistanceJoint<>(
-          vertexes.get(Vertex.NE),
-          vertexes.get(Vertex.SW),
-          vertexes.get(Vertex.NE).getWorldCenter(),
-          vertexes.get(Vertex.SW).getWorldCenter()));
-      for (DistanceJoint<Body> joint : centralJoints) {
-        joint.setUserData(centralCrossActiveRange);
+    // center and area of the enlonged poly
+    centerX = 0d;
+    centerY = 0d;
+    area = 0d;
+    for (int i = 0; i < xs.length; i = i + 1) {
+      centerX = centerX + xs[i];
+      centerY = centerY + ys[i];
+      area = area + xs[i] * (ys[(i + 1) % xs.length] - ys[(i + xs.length - 1) % xs.length]);
+    }
+    centerX = centerX / xs.length;
+    centerY = centerY / xs.length;
+    area = 0.5d * Math.abs(area);
+    points = null;
+    poly = null;
+    stale = false;
+  }
+
+  protected void assemble() {
+    Prototype prototype = prototype(new PrototypeKey(
+        sideLength,
+        mass,
+        vertexMassSideLengthRatio,
+        areaRatioActiveRange,
+        springScaffoldings,
+        sharedVertexes != null));
+    Vector2 center = new Vector2(0d, 0d);
+    if (sharedVertexes != null) {
+      // take the bodies on the corners of the lattice, claiming those not yet owned by another voxel
+      vertexes.put(Vertex.NW, sharedVertexes.get(key.translated(0, 1)));
+      vertexes.put(Vertex.NE, sharedVertexes.get(key.translated(1, 1)));
+      vertexes.put(Vertex.SE, sharedVertexes.get(key.translated(1, 0)));
+      vertexes.put(Vertex.SW, sharedVertexes.get(key));
+      for (Body body : vertexes.values()) {
+        if (body.getUserData() == null) {
+          body.setUserData(this);
+          body.getFixtures()
+              .forEach(f -> f.setFilter(new VoxelFilter(this, BodyType.VERTEX, sharedVertexes)));
+          ownedVertexes.add(body);
+        }
+      }
+      center.set((key.x() + 0.5d) * sideLength, (key.y() - 0.5d) * sideLength);
+    } else {
+      // build bodies
+      for (Map.Entry<Vertex, Point> entry : prototype.vertexCenters().entrySet()) {
+        Body body = new Body();
+        body.addFixture(prototype.vertexShape(), prototype.density(), friction, restitution);
+        body.translate(entry.getValue().x(), entry.getValue().y());
+        body.setMass(prototype.vertexMass());
+        body.setLinearDamping(linearDamping);
+        body.setAngularDamping(angularDamping);
+        body.getFixtures().forEach(f -> f.setFilter(new VoxelFilter(this, BodyType.VERTEX, this)));
+        body.setUserData(this);
+        vertexes.put(entry.getKey(), body);
+        ownedVertexes.add(body);
       }
     }
-    // set collision filter
-    getBodies().forEach(b -> b.getFixtures().forEach(f -> f.setFilter(new VoxelFilter(this, BodyType.VERTEX))));
     // add central mass
-    //noinspection ConstantConditions
-    if (CENTRAL_MASS_RATIO > 0) {
+    if (prototype.centralShape() != null) {
       Body centralMass = new Body();
-      centralMass.addFixture(
-          new Circle(activeSideRange.min() / 2d), mass * CENTRAL_MASS_RATIO, friction, restitution);
-      centralMass.setMass(MassType.NORMAL);
+      centralMass.addFixture(prototype.centralShape(), mass * CENTRAL_MASS_RATIO, friction, restitution);
+      centralMass.setMass(prototype.centralMass());
       centralMass.setLinearDamping(linearDamping);
       centralMass.setAngularDamping(angularDamping);
-      centralMass.translate(sideLength / 2d, sideLength / 2d);
-      centralMass.getFixtures().forEach(f -> f.setFilter(new VoxelFilter(this, BodyType.CENTRAL)));
+      centralMass.translate(
+          prototype.centralCenter().x() + center.x,
+          prototype.centralCenter().y() + center.y);
+      centralMass
+          .getFixtures()
+          .forEach(f -> f.setFilter(
+              new VoxelFilter(this, BodyType.CENTRAL, sharedVertexes == null ? this : sharedVertexes)));
+      centralMass.setUserData(this);
       otherBodies.add(centralMass);
-      for (Body vertex : vertexes.values()) {
-        DistanceJoint<Body> joint =
-            new DistanceJoint<>(centralMass, vertex, centralMass.getWorldCenter(), vertex.getWorldCenter());
-        joint.setUserData(new SpringRange(
-            centralCrossActiveRange.min / 2d,
-            centralCrossActiveRange.rest / 2d,
-            centralCrossActiveRange.max / 2));
-        joint.setCollisionAllowed(false);
+    }
+    // build spring joints
+    double frequency = SPRING_F_RANGE.denormalize(softness);
+    for (SpringPrototype springPrototype : prototype.springPrototypes()) {
+      DistanceJoint<Body> joint = new DistanceJoint<>(
+          springPrototype.vertex1() == null
+              ? otherBodies.getFirst()
+              : vertexes.get(springPrototype.vertex1()),
+          vertexes.get(springPrototype.vertex2()),
+          new Vector2(
+              springPrototype.anchor1().x() + center.x,
+              springPrototype.anchor1().y() + center.y),
+          new Vector2(
+              springPrototype.anchor2().x() + center.x,
+              springPrototype.anchor2().y() + center.y));
+      joint.setUserData(springPrototype.range());
+      joint.setRestDistance(springPrototype.range().rest);
+      joint.setCollisionAllowed(true);
+      joint.setFrequency(frequency);
+      joint.setDampingRatio(SPRING_D);
+      if (springPrototype.side() == null) {
         centralJoints.add(joint);
+      } else {
+        sideJoints.get(springPrototype.side()).add(joint);
+      }
+    }
+  }
+
+  protected static Grid<Voxel> grid(
+      double sideLength,
+      double mass,
+      double friction,
+      double restitution,
+      double linearDamping,
+      double angularDamping,
+      double vertexMassSideLengthRatio,
+      EnumSet<SpringScaffolding> springScaffoldings,
+      Grid<io.github.ericmedvet.mrsim2d.core.bodies.Voxel.Material> materials) {
+    // the corner (i,j) of the lattice is the SW vertex of the voxel (i,j), with the left upper corner of the voxel
+    // (x,y) in (x*sideLength,y*sideLength)
+    Grid<Body> sharedVertexes = Grid.create(materials.w() + 1, materials.h() + 1);
+    for (Grid.Key cornerKey : sharedVertexes.keys()) {
+      List<io.github.ericmedvet.mrsim2d.core.bodies.Voxel.Material> cornerMaterials = Stream.of(
+              cornerKey.translated(-1, -1),
+              cornerKey.translated(0, -1),
+              cornerKey.translated(-1, 0),
+              cornerKey)
+          .filter(k -> materials.isValid(k) && materials.get(k) != null)
+          .map(materials::get)
+          .toList();
+      if (cornerMaterials.isEmpty()) {
+        continue;
       }
+      // each sharing voxel brings the mass of one of its vertexes
+      Prototype prototype = prototype(new PrototypeKey(
+          sideLength,
+          mass,
+          vertexMassSideLengthRatio,
+          cornerMaterials.getFirst().areaRatioRange(),
+          springScaffoldings,
+          true));
+      double density = prototype.density() * cornerMaterials.size();
+      Body body = new Body();
+      body.addFixture(prototype.vertexShape(), density, friction, restitution);
+      body.translate(cornerKey.x() * sideLength, (cornerKey.y() - 1) * sideLength);
+      Mass vertexMass = prototype.vertexShape().createMass(density);
+      vertexMass.setType(MassType.NORMAL);
+      body.setMass(vertexMass);
+      body.setLinearDamping(linearDamping);
+      body.setAngularDamping(angularDamping);
+      sharedVertexes.set(cornerKey, body);
     }
-    // setup spring joints
-    getJoints().forEach(j -> {
-      if (j instanceof DistanceJoint<Body> joint) {
-        joint.setRestDistance(((SpringRange) joint.getUserData()).rest);
-        joint.setCollisionAllowed(true);
-        joint.setFrequency(SPRING_F_RANGE.denormalize(softness));
-        joint.setDampingRatio(SPRING_D);
+    // build voxels
+    Grid<Voxel> voxels = Grid.create(materials.w(), materials.h());
+    for (Grid.Entry<io.github.ericmedvet.mrsim2d.core.bodies.Voxel.Material> entry : materials.entries()) {
+      if (entry.value() != null) {
+        voxels.set(
+            entry.key(),
+            new Voxel(
+                sideLength,
+                mass,
+                friction,
+                restitution,
+                entry.value().softness(),
+                linearDamping,
+                angularDamping,
+                vertexMassSideLengthRatio,
+                entry.value().areaRatioRange(),
+                springScaffoldings,
+                sharedVertexes,
+                entry.key()));
+      }
+    }
+    // moving a voxel moves the vertexes of its neighbors
+    for (Grid.Key key : voxels.keys()) {
+      Voxel voxel = voxels.get(key);
+      if (voxel != null) {
+        List<Voxel> vertexSharingVoxels = new ArrayList<>();
+        for (int dy = -1; dy <= 1; dy = dy + 1) {
+          for (int dx = -1; dx <= 1; dx = dx + 1) {
+            Grid.Key otherKey = key.translated(dx, dy);
+            if (voxels.isValid(otherKey) && voxels.get(otherKey) != null) {
+              vertexSharingVoxels.add(voxels.get(otherKey));
+            }
+          }
+        }
+        voxel.vertexSharingVoxels = Collections.unmodifiableList(vertexSharingVoxels);
       }
-    });
-    // set user data
-    vertexes.values().forEach(b -> b.setUserData(this));
-    otherBodies.forEach(b -> b.setUserData(this));
+    }
+    return voxels;
   }
 
-  private Point enlongForm(Point src, Point dst, double d) {
-    return dst.sum(new Point(dst.diff(src).direction()).scale(d));
+  private static Prototype prototype(PrototypeKey key) {
+    return PROTOTYPES.computeIfAbsent(key, Prototype::of);
   }
 
+  // shared vertex bodies are returned only by the voxel owning them, so that each body is moved once
   @Override
   public Collection<Body> getBodies() {
-    return Stream.of(vertexes.values(), otherBodies)
-        .flatMap(Collection::stream)
-        .toList();
+    return Stream.of(ownedVertexes, otherBodies).flatMap(Collection::stream).toList();
   }
 
   @SuppressWarnings({"unchecked", "rawtypes"})
@@ -460,16 +739,21 @@ public class Voxel implements io.github.ericmedvet.mrsim2d.core.bodies.Voxel, Mu
     return (List) allJoints;
   }
 
-  private Vector2 getSidesAverageDirection() {
-    return new Vector2(
-        vertexes.get(Vertex.NW).getWorldCenter().x
-            - vertexes.get(Vertex.NE).getWorldCenter().x
-            + vertexes.get(Vertex.SW).getWorldCenter().x
-            - vertexes.get(Vertex.SE).getWorldCenter().x,
-        vertexes.get(Vertex.NW).getWorldCenter().y
-            - vertexes.get(Vertex.NE).getWorldCenter().y
-            + vertexes.get(Vertex.SW).getWorldCenter().y
-            - vertexes.get(Vertex.SE).getWorldCenter().y);
+  private double sidesAverageAngle() {
+    // on the centers of vertex bodies, indexed by vertex ordinal
+    int nw = Vertex.NW.ordinal();
+    int ne = Vertex.NE.ordinal();
+    int se = Vertex.SE.ordinal();
+    int sw = Vertex.SW.ordinal();
+    return Math.atan2(ys[nw] - ys[ne] + ys[sw] - ys[se], xs[nw] - xs[ne] + xs[sw] - xs[se]);
+  }
+
+  private void updateVertexCenters() {
+    for (int i = 0; i < vertexBodies.length; i = i + 1) {
+      Vector2 localCenter = vertexBodies[i].getMass().getCenter();
+      xs[i] = vertexBodies[i].getTransform().getTransformedX(localCenter);
+      ys[i] = vertexBodies[i].getTransform().getTransformedY(localCenter);
+    }
   }
 
   @Override
@@ -479,6 +763,6 @@ public class Voxel implements io.github.ericmedvet.mrsim2d.core.bodies.Voxel, Mu
 
   @Override
   public String toString() {
-    return String.format("%s at %s", this.getClass().getSimpleName(), poly().center());
+    return String.format("%s at %s", this.getClass().getSimpleName(), center());
   }
 }
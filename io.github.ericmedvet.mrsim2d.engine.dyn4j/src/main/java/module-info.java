@@ -30,5 +30,6 @@ module io.github.ericmedvet.mrsim2d.engine.dyn4j {
   provides Engine with
       Dyn4JEngine;
 
+  exports io.github.ericmedvet.mrsim2d.engine.dyn4j;
   exports io.github.ericmedvet.mrsim2d.engine.dyn4j.drawers;
 }
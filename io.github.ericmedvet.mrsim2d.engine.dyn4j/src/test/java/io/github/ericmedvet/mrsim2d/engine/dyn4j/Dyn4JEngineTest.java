@@ -0,0 +1,137 @@
+/*-
+ * ========================LICENSE_START=================================
+ * mrsim2d-engine-dyn4j
+ * %%
+ * Copyright (C) 2020 - 2024 Eric Medvet
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+package io.github.ericmedvet.mrsim2d.engine.dyn4j;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import io.github.ericmedvet.mrsim2d.core.AbstractEmbodiedAgent;
+import io.github.ericmedvet.mrsim2d.core.Action;
+import io.github.ericmedvet.mrsim2d.core.ActionOutcome;
+import io.github.ericmedvet.mrsim2d.core.ActionPerformer;
+import io.github.ericmedvet.mrsim2d.core.EmbodiedAgent;
+import io.github.ericmedvet.mrsim2d.core.actions.ActuateVoxel;
+import io.github.ericmedvet.mrsim2d.core.actions.AddAgent;
+import io.github.ericmedvet.mrsim2d.core.actions.CreateUnmovableBody;
+import io.github.ericmedvet.mrsim2d.core.actions.CreateVoxel;
+import io.github.ericmedvet.mrsim2d.core.actions.RotateBody;
+import io.github.ericmedvet.mrsim2d.core.actions.SenseDistanceToBody;
+import io.github.ericmedvet.mrsim2d.core.actions.TranslateBody;
+import io.github.ericmedvet.mrsim2d.core.bodies.Body;
+import io.github.ericmedvet.mrsim2d.core.bodies.Voxel;
+import io.github.ericmedvet.mrsim2d.core.engine.Engine;
+import io.github.ericmedvet.mrsim2d.core.geometry.Point;
+import io.github.ericmedvet.mrsim2d.core.geometry.Poly;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class Dyn4JEngineTest {
+
+  // obtained with the engine before voxel geometry caching, shared raycast broadphases, and voxel prototypes
+  private static final double EXPECTED_X_SUM = 105.54468949315469;
+  private static final double EXPECTED_Y_SUM = 26.98114837037747;
+  private static final double EXPECTED_DISTANCES_SUM = 1077.1799307701806;
+
+  private static class VoxelAgent extends AbstractEmbodiedAgent {
+    private Voxel voxel;
+
+    @Override
+    public void assemble(ActionPerformer actionPerformer) {
+      voxel = actionPerformer
+          .perform(new CreateVoxel(1d, 1d), this)
+          .outcome()
+          .orElseThrow();
+    }
+
+    @Override
+    public List<Body> bodyParts() {
+      return List.of(voxel);
+    }
+
+    @Override
+    public List<? extends Action<?>> act(double t, List<ActionOutcome<?, ?>> previousActionOutcomes) {
+      return List.of();
+    }
+  }
+
+  @Test
+  void onlyOwningAgentGeometryIsInvalidatedByMovingActions() {
+    Engine engine = new Dyn4JEngine();
+    VoxelAgent agent1 = new VoxelAgent();
+    VoxelAgent agent2 = new VoxelAgent();
+    engine.perform(new AddAgent(agent1));
+    engine.perform(new AddAgent(agent2));
+    EmbodiedAgent.Geometry geometry2 = agent2.geometry();
+    agent1.geometry();
+    engine.perform(new TranslateBody(agent1.voxel, new Point(10d, 2.5d)));
+    assertEquals(agent1.voxel.poly().center(), agent1.center());
+    assertSame(geometry2, agent2.geometry());
+    engine.perform(new RotateBody(agent1.voxel, 0.5d));
+    assertEquals(agent1.voxel.poly().center(), agent1.center());
+    assertEquals(agent1.voxel.poly().boundingBox(), agent1.boundingBox());
+    assertSame(geometry2, agent2.geometry());
+  }
+
+  @Test
+  void simulationIsTheSameAsBeforeCaches() {
+    Engine engine = new Dyn4JEngine();
+    engine.perform(new CreateUnmovableBody(Poly.rectangle(50d, 2d)));
+    Voxel voxel1 = engine.perform(new CreateVoxel(1d, 1d)).outcome().orElseThrow();
+    Voxel voxel2 = engine.perform(new CreateVoxel(1.5d, 2d, new Voxel.Material(0.5d, 0.3d)))
+        .outcome()
+        .orElseThrow();
+    engine.perform(new TranslateBody(voxel1, new Point(10d, 2.5d)));
+    engine.perform(new TranslateBody(voxel2, new Point(12d, 2.5d)));
+    // rays hit the other voxel and the ground
+    double distancesSum = 0d;
+    for (int i = 0; i < 300; i = i + 1) {
+      double t = engine.t();
+      engine.perform(new ActuateVoxel(
+          voxel1, Math.sin(t * 5d), Math.sin(t * 5d + 1d), Math.sin(t * 5d + 2d), Math.sin(t * 5d + 3d)));
+      engine.perform(new ActuateVoxel(voxel2, Math.cos(t * 7d)));
+      distancesSum = distancesSum
+          + engine.perform(new SenseDistanceToBody(0d, 5d, voxel1))
+              .outcome()
+              .orElseThrow();
+      distancesSum = distancesSum
+          + engine.perform(new SenseDistanceToBody(-Math.PI / 2d, 5d, voxel1))
+              .outcome()
+              .orElseThrow();
+      distancesSum = distancesSum
+          + engine.perform(new SenseDistanceToBody(Math.PI, 5d, voxel2))
+              .outcome()
+              .orElseThrow();
+      engine.tick();
+    }
+    // on body positions, which do not depend on cached geometry
+    double xSum = 0d;
+    double ySum = 0d;
+    for (Voxel voxel : new Voxel[] {voxel1, voxel2}) {
+      for (org.dyn4j.dynamics.Body body : ((MultipartBody) voxel).getBodies()) {
+        xSum = xSum + body.getWorldCenter().x;
+        ySum = ySum + body.getWorldCenter().y;
+      }
+    }
+    assertEquals(EXPECTED_X_SUM, xSum);
+    assertEquals(EXPECTED_Y_SUM, ySum);
+    assertEquals(EXPECTED_DISTANCES_SUM, distancesSum);
+  }
+}
@@ -0,0 +1,108 @@
+/*-
+ * ========================LICENSE_START=================================
+ * mrsim2d-engine-dyn4j
+ * %%
+ * Copyright (C) 2020 - 2024 Eric Medvet
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+package io.github.ericmedvet.mrsim2d.engine.dyn4j;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import io.github.ericmedvet.mrsim2d.core.actions.ActuateVoxel;
+import io.github.ericmedvet.mrsim2d.core.actions.CreateUnmovableBody;
+import io.github.ericmedvet.mrsim2d.core.actions.CreateVoxel;
+import io.github.ericmedvet.mrsim2d.core.actions.RotateBody;
+import io.github.ericmedvet.mrsim2d.core.actions.TranslateBody;
+import io.github.ericmedvet.mrsim2d.core.bodies.Voxel.Vertex;
+import io.github.ericmedvet.mrsim2d.core.engine.Engine;
+import io.github.ericmedvet.mrsim2d.core.geometry.Point;
+import io.github.ericmedvet.mrsim2d.core.geometry.Poly;
+import java.util.Arrays;
+import org.dyn4j.geometry.Vector2;
+import org.junit.jupiter.api.Test;
+
+class VoxelTest {
+
+  // the cached center is a plain average, while Point.average compensates the sum: values differ at most by rounding
+  private static final double EPSILON = 1e-12;
+  private static final double VERTEX_MASS_SIDE_LENGTH_RATIO = 0.35d;
+
+  private static Point worldCenter(Voxel voxel, Vertex vertex) {
+    Vector2 center = voxel.vertexes.get(vertex).getWorldCenter();
+    return new Point(center.x, center.y);
+  }
+
+  // the poly as computed from the bodies before geometry was cached
+  private static Poly bodiesPoly(Voxel voxel, double sideLength) {
+    Point[] centers =
+        Arrays.stream(Vertex.values()).map(v -> worldCenter(voxel, v)).toArray(Point[]::new);
+    Point center = Point.average(centers);
+    double d = sideLength * VERTEX_MASS_SIDE_LENGTH_RATIO / 2d * Math.sqrt(2d);
+    return new Poly(Arrays.stream(centers)
+        .map(c -> c.sum(new Point(c.diff(center).direction()).scale(d)))
+        .toArray(Point[]::new));
+  }
+
+  private static Vector2 sidesAverageDirection(Voxel voxel) {
+    Point nw = worldCenter(voxel, Vertex.NW);
+    Point ne = worldCenter(voxel, Vertex.NE);
+    Point se = worldCenter(voxel, Vertex.SE);
+    Point sw = worldCenter(voxel, Vertex.SW);
+    return new Vector2(nw.x() - ne.x() + sw.x() - se.x(), nw.y() - ne.y() + sw.y() - se.y());
+  }
+
+  private static void assertSameGeometry(
+      Voxel voxel, double sideLength, Vector2 initialSidesAverageDirection, String message) {
+    Poly poly = bodiesPoly(voxel, sideLength);
+    for (Vertex vertex : Vertex.values()) {
+      Point expected = poly.vertexes()[vertex.ordinal()];
+      assertEquals(expected.x(), voxel.vertex(vertex).x(), EPSILON, message);
+      assertEquals(expected.y(), voxel.vertex(vertex).y(), EPSILON, message);
+      assertEquals(expected.x(), voxel.poly().vertexes()[vertex.ordinal()].x(), EPSILON, message);
+      assertEquals(expected.y(), voxel.poly().vertexes()[vertex.ordinal()].y(), EPSILON, message);
+    }
+    assertEquals(poly.center().x(), voxel.center().x(), EPSILON, message);
+    assertEquals(poly.center().y(), voxel.center().y(), EPSILON, message);
+    assertEquals(poly.area() / voxel.restArea(), voxel.areaRatio(), EPSILON, message);
+    assertEquals(
+        -sidesAverageDirection(voxel).getAngleBetween(initialSidesAverageDirection),
+        voxel.angle(),
+        EPSILON,
+        message);
+  }
+
+  @Test
+  void cachedGeometryIsTheSameAsBodiesGeometry() {
+    Engine engine = new Dyn4JEngine();
+    engine.perform(new CreateUnmovableBody(Poly.rectangle(50d, 2d)));
+    Voxel voxel =
+        (Voxel) engine.perform(new CreateVoxel(1.5d, 2d)).outcome().orElseThrow();
+    Vector2 initialSidesAverageDirection = sidesAverageDirection(voxel);
+    engine.perform(new TranslateBody(voxel, new Point(10d, 2.5d)));
+    assertSameGeometry(voxel, 1.5d, initialSidesAverageDirection, "after translation");
+    engine.perform(new RotateBody(voxel, 0.5d));
+    assertSameGeometry(voxel, 1.5d, initialSidesAverageDirection, "after rotation");
+    // actuated and falling, so that it deforms, moves, and rotates
+    for (int i = 0; i < 300; i = i + 1) {
+      double t = engine.t();
+      engine.perform(new ActuateVoxel(
+          voxel, Math.sin(t * 5d), Math.sin(t * 5d + 1d), Math.sin(t * 5d + 2d), Math.sin(t * 5d + 3d)));
+      engine.tick();
+      assertSameGeometry(voxel, 1.5d, initialSidesAverageDirection, "at t=%.3f".formatted(engine.t()));
+    }
+  }
+}
@@ -34,11 +34,8 @@ public class AllAgentsFramer extends AbstractFramer<Snapshot> {
   protected BoundingBox getCurrentBoundingBox(Snapshot snapshot) {
     return snapshot.agents().stream()
         .filter(a -> a instanceof EmbodiedAgent)
-        .map(a -> ((EmbodiedAgent) a)
-            .bodyParts().stream()
-                .map(b -> b.poly().boundingBox())
-                .reduce(BoundingBox::enclosing)
-                .orElse(DEFAULT_BOUNDING_BOX))
+        .map(a -> (EmbodiedAgent) a)
+        .map(a -> a.bodyParts().isEmpty() ? DEFAULT_BOUNDING_BOX : a.boundingBox())
         .reduce(BoundingBox::enclosing)
         .orElse(DEFAULT_BOUNDING_BOX);
   }